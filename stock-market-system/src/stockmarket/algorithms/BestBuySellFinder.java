@@ -1,7 +1,7 @@
 package stockmarket.algorithms;
 
-import stockmarket.models.Stock;
 import stockmarket.datastructures.CustomArrayList;
+import stockmarket.datastructures.PriceBars;
 
 public class BestBuySellFinder {
 
@@ -9,10 +9,10 @@ public class BestBuySellFinder {
         public int buyDay;
         public int sellDay;
         public double profit;
-        public String buyDate;
-        public String sellDate;
+        public int buyDate;
+        public int sellDate;
 
-        public BuySellResult(int buyDay, int sellDay, double profit, String buyDate, String sellDate) {
+        public BuySellResult(int buyDay, int sellDay, double profit, int buyDate, int sellDate) {
             this.buyDay = buyDay;
             this.sellDay = sellDay;
             this.profit = profit;
@@ -21,21 +21,33 @@ public class BestBuySellFinder {
         }
     }
 
-    public static BuySellResult findBestBuySellDays(CustomArrayList<Stock> history) {
-        if (history.size() < 2) {
+    //optimal schedule of non-overlapping trades; every trade's profit is already net of the fee
+    public static class TradePlan {
+        public double totalProfit;
+        public CustomArrayList<BuySellResult> trades;
+
+        public TradePlan(double totalProfit, CustomArrayList<BuySellResult> trades) {
+            this.totalProfit = totalProfit;
+            this.trades = trades;
+        }
+    }
+
+    //single pass over a loaded history (heap or off-heap): remember the lowest low so far and sell at
+    //every later high against it. BestTradeTracker runs the same rule one bar at a time for streamed rows
+    public static BuySellResult findBestBuySellDays(PriceBars history) {
+        int n = history.size();
+        if (n < 2) {
             return null;
         }
 
-        double minPrice = history.get(0).getLowPrice();
+        double minPrice = history.low(0);
         int minPriceDay = 0;
         double maxProfit = 0;
         int buyDay = 0;
         int sellDay = 0;
 
-        for (int i = 1; i < history.size(); i++) {
-            Stock currentStock = history.get(i);
-            double currentPrice = currentStock.getHighPrice();
-            double currentProfit = currentPrice - minPrice;
+        for (int i = 1; i < n; i++) {
+            double currentProfit = history.high(i) - minPrice;
 
             if (currentProfit > maxProfit) {
                 maxProfit = currentProfit;
@@ -43,8 +55,9 @@ public class BestBuySellFinder {
                 sellDay = i;
             }
 
-            if (currentStock.getLowPrice() < minPrice) {
-                minPrice = currentStock.getLowPrice();
+            double low = history.low(i);
+            if (low < minPrice) {
+                minPrice = low;
                 minPriceDay = i;
             }
         }
@@ -54,7 +67,165 @@ public class BestBuySellFinder {
         }
 
         return new BuySellResult(buyDay, sellDay, maxProfit,
-                history.get(buyDay).getDate(),
-                history.get(sellDay).getDate());
+                history.date(buyDay), history.date(sellDay));
+    }
+
+    // --------------------------------------------------------
+    // MULTIPLE TRADES (DYNAMIC PROGRAMMING)
+    // --------------------------------------------------------
+
+    //best schedule of at most maxTrades round trips, each bought at a day's low and sold at the high of a
+    //later day, paying fee per round trip and waiting cooldown full days after a sale before buying again.
+    //O(n * maxTrades) time and O(maxTrades * cooldown) memory plus 2 bits per (trade, day) for the schedule.
+    //a cooldown longer than the history is the same as a single trade, and no more than
+    //(n + cooldown) / (cooldown + 2) trades fit, so both are capped and memory stays O(n);
+    //when maxTrades >= n / 2 the trade limit cannot bind and the O(n) unlimited version runs instead
+    public static TradePlan findBestTrades(PriceBars history, int maxTrades, double fee, int cooldown) {
+        checkCosts(fee, cooldown);
+        int n = history.size();
+        if (maxTrades <= 0 || n < 2)
+            return new TradePlan(0, new CustomArrayList<>(0));
+        cooldown = Math.min(cooldown, n);
+        if (maxTrades >= n / 2)
+            return findBestTradesUnlimited(history, fee, cooldown);
+
+        // every trade takes a buy day and a sell day, and consecutive trades are cooldown days apart
+        int k = Math.min(maxTrades, (n + cooldown) / (cooldown + 2));
+        // cash[d][t]: best profit with at most t trades, not holding, at the end of day d - 1
+        // (a ring of the last cooldown + 2 days; days before the history are all zero)
+        int ring = cooldown + 2;
+        double[][] cash = new double[ring][k + 1];
+        // hold[t]: best profit while holding the t-th position, at the end of the previous day
+        double[] hold = new double[k + 1];
+        for (int t = 0; t <= k; t++) {
+            hold[t] = Double.NEGATIVE_INFINITY;
+        }
+        // decisions for the schedule: bit t * n + i set when day i sells (or buys) trade t
+        long[] sold = new long[(int) (((long) (k + 1) * n + 63) >>> 6)];
+        long[] bought = new long[sold.length];
+
+        for (int i = 0; i < n; i++) {
+            double high = history.high(i);
+            double low = history.low(i);
+            double[] before = cash[i % ring];
+            double[] today = cash[(i + 1) % ring];
+            // a buy today needs the cash of day i - 1 - cooldown; for the first days that slot
+            // has not been written yet and still holds the zeros of "before the history"
+            double[] available = cash[((i - cooldown) % ring + ring) % ring];
+
+            today[0] = 0;
+            for (int t = k; t >= 1; t--) {
+                // sell today a position bought on an earlier day
+                double sell = hold[t] + high - fee;
+                if (sell > before[t]) {
+                    today[t] = sell;
+                    setBit(sold, (long) t * n + i);
+                } else {
+                    today[t] = before[t];
+                }
+
+                double buy = available[t - 1] - low;
+                if (buy > hold[t]) {
+                    hold[t] = buy;
+                    setBit(bought, (long) t * n + i);
+                }
+            }
+        }
+
+        return rebuildPlan(history, sold, bought, k, false, fee, cooldown, cash[n % ring][k]);
+    }
+
+    //no trade limit: the same recurrences with a single state pair, O(n) time
+    public static TradePlan findBestTradesUnlimited(PriceBars history, double fee, int cooldown) {
+        checkCosts(fee, cooldown);
+        int n = history.size();
+        if (n < 2)
+            return new TradePlan(0, new CustomArrayList<>(0));
+        cooldown = Math.min(cooldown, n);
+
+        int ring = cooldown + 2;
+        double[] cash = new double[ring];
+        double hold = Double.NEGATIVE_INFINITY;
+        // unlimited trades use "trade" index 1 only, so the shared rebuild works unchanged
+        long[] sold = new long[(int) ((2L * n + 63) >>> 6)];
+        long[] bought = new long[sold.length];
+
+        for (int i = 0; i < n; i++) {
+            double before = cash[i % ring];
+            double available = cash[((i - cooldown) % ring + ring) % ring];
+
+            double sell = hold + history.high(i) - fee;
+            double today = before;
+            if (sell > before) {
+                today = sell;
+                setBit(sold, n + i);
+            }
+            cash[(i + 1) % ring] = today;
+
+            double buy = available - history.low(i);
+            if (buy > hold) {
+                hold = buy;
+                setBit(bought, n + i);
+            }
+        }
+
+        return rebuildPlan(history, sold, bought, 1, true, fee, cooldown, cash[n % ring]);
+    }
+
+    //walks the recorded decisions backwards from "not holding, all trades allowed, last day".
+    //unlimited mode stores everything under trade 1 and never runs out of trades
+    private static TradePlan rebuildPlan(PriceBars history, long[] sold, long[] bought, int k,
+            boolean unlimited, double fee, int cooldown, double totalProfit) {
+        int n = history.size();
+        CustomArrayList<BuySellResult> reversed = new CustomArrayList<>();
+
+        int t = k;
+        int i = n - 1;
+        int sellDay = -1;
+        boolean holding = false;
+        while (i >= 0 && t >= 1) {
+            if (!holding) {
+                if (getBit(sold, (long) t * n + i)) {
+                    sellDay = i;
+                    holding = true;
+                }
+                i--;
+            } else {
+                if (getBit(bought, (long) t * n + i)) {
+                    double profit = history.high(sellDay) - history.low(i) - fee;
+                    reversed.add(new BuySellResult(i, sellDay, profit,
+                            history.date(i), history.date(sellDay)));
+                    holding = false;
+                    if (!unlimited)
+                        t--;
+                    i -= 1 + cooldown;
+                } else {
+                    i--;
+                }
+            }
+        }
+
+        CustomArrayList<BuySellResult> trades = new CustomArrayList<>(reversed.size());
+        for (int j = reversed.size() - 1; j >= 0; j--) {
+            trades.add(reversed.get(j));
+        }
+        return new TradePlan(totalProfit, trades);
+    }
+
+    //rejects a negative or NaN fee and a negative cooldown
+    private static void checkCosts(double fee, int cooldown) {
+        if (!(fee >= 0))
+            throw new IllegalArgumentException("fee must not be negative: " + fee);
+        if (cooldown < 0)
+            throw new IllegalArgumentException("cooldown must not be negative: " + cooldown);
+    }
+
+    // bit indexes are long: (trades + 1) * days overflows an int on long histories
+    private static void setBit(long[] bits, long index) {
+        bits[(int) (index >>> 6)] |= 1L << index;
+    }
+
+    private static boolean getBit(long[] bits, long index) {
+        return (bits[(int) (index >>> 6)] & (1L << index)) != 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package stockmarket.algorithms;
+
+import stockmarket.storage.TickStore;
+
+//online version of BestBuySellFinder for one ticker: keeps the running minimum low and the best trade so far,
+//so every new bar is an O(1) update and the best trade is an O(1) read.
+//seeded once from the stored history (it is a RowVisitor, so forEachRow can feed it), then fed one bar per
+//simulated day. One thread adds bars; any thread may read best() and returnPct() at the same time
+public class BestTradeTracker implements TickStore.RowVisitor {
+    private final String name;
+    private final String ticker;
+
+    private int days;
+    private double minLow = Double.POSITIVE_INFINITY;
+    private int minDay;
+    private int minDate;
+    private int lastDate;
+
+    private double profit;
+    // trade and buy price are published together, so readers never mix two different trades
+    private volatile Best best;
+
+    private static final class Best {
+        final BestBuySellFinder.BuySellResult trade;
+        final double buyPrice;
+
+        Best(BestBuySellFinder.BuySellResult trade, double buyPrice) {
+            this.trade = trade;
+            this.buyPrice = buyPrice;
+        }
+    }
+
+    public BestTradeTracker(String name, String ticker) {
+        this.name = name;
+        this.ticker = ticker;
+    }
+
+    //appends the next bar (dates must be increasing), O(1)
+    public void add(int epochDay, double high, double low) {
+        if (days > 0 && high - minLow > profit) {
+            profit = high - minLow;
+            best = new Best(new BestBuySellFinder.BuySellResult(minDay, days, profit, minDate, epochDay), minLow);
+        }
+        if (low < minLow) {
+            minLow = low;
+            minDay = days;
+            minDate = epochDay;
+        }
+        lastDate = epochDay;
+        days++;
+    }
+
+    @Override
+    public void row(int epochDay, double high, double low) {
+        add(epochDay, high, low);
+    }
+
+    //best trade so far, or null while no trade makes money (same result as findBestBuySellDays)
+    public BestBuySellFinder.BuySellResult best() {
+        Best b = best;
+        return b == null ? null : b.trade;
+    }
+
+    //profit of the best trade as a percent of its buy price, 0 when there is none
+    public double returnPct() {
+        Best b = best;
+        return b == null || b.buyPrice <= 0 ? 0 : b.trade.profit / b.buyPrice * 100;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public int days() {
+        return days;
+    }
+
+    public int lastDate() {
+        return lastDate;
+    }
+}
@@ -0,0 +1,145 @@
+package stockmarket.algorithms;
+
+import stockmarket.datastructures.CustomArrayList;
+import stockmarket.storage.TickStore;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+//best historical trade of every ticker in one pass over the tick store.
+//the store already keeps each ticker's rows in its own chain of blocks, so the job splits the ticker ids
+//into fork-join tasks of roughly equal row counts; every task streams its tickers' rows with forEachRow
+//into a BestTradeTracker (the single-pass rule of BestBuySellFinder). Each block is read exactly once,
+//by exactly one thread.
+//results are ranked by percent return (profit over the buy price), so cheap and expensive stocks compare fairly.
+//the store must not be appended to while a scan runs
+public class MarketTradeScan {
+    // a task with at most this many rows (or a single ticker) is scanned without splitting further
+    private static final long TASK_ROWS = 1L << 16;
+
+    public static class TickerTrade {
+        public String ticker;
+        public String name;
+        public BestBuySellFinder.BuySellResult trade;
+        public double returnPct;
+
+        public TickerTrade(String ticker, String name, BestBuySellFinder.BuySellResult trade, double returnPct) {
+            this.ticker = ticker;
+            this.name = name;
+            this.trade = trade;
+            this.returnPct = returnPct;
+        }
+    }
+
+    public static CustomArrayList<TickerTrade> bestTrades(TickStore store) {
+        return bestTrades(store, ForkJoinPool.commonPool());
+    }
+
+    //every ticker with a profitable trade, best percent return first
+    public static CustomArrayList<TickerTrade> bestTrades(TickStore store, ForkJoinPool pool) {
+        int tickers = store.tickerCount();
+        // prefix sums of the row counts, used to split the work evenly
+        long[] rowsBefore = new long[tickers + 1];
+        for (int id = 0; id < tickers; id++) {
+            rowsBefore[id + 1] = rowsBefore[id] + store.rows(id);
+        }
+
+        // every task writes only the slots of its own tickers
+        TickerTrade[] best = new TickerTrade[tickers];
+        if (tickers > 0) {
+            pool.invoke(new ScanTask(store, rowsBefore, best, 0, tickers));
+        }
+
+        return rank(best);
+    }
+
+    private static CustomArrayList<TickerTrade> rank(TickerTrade[] best) {
+        int found = 0;
+        for (TickerTrade t : best) {
+            if (t != null)
+                found++;
+        }
+
+        TickerTrade[] trades = new TickerTrade[found];
+        double[] keys = new double[found];
+        int[] order = new int[found];
+        int j = 0;
+        for (TickerTrade t : best) {
+            if (t == null)
+                continue;
+            trades[j] = t;
+            // negated so the ascending sort puts the best return first
+            keys[j] = -t.returnPct;
+            order[j] = j;
+            j++;
+        }
+        StockSorter.sort(keys, order, false);
+
+        CustomArrayList<TickerTrade> ranked = new CustomArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            ranked.add(trades[order[i]]);
+        }
+        return ranked;
+    }
+
+    //best trade of one ticker, or null when no trade makes money
+    private static TickerTrade scanTicker(TickStore store, int id) {
+        BestTradeTracker tracker = new BestTradeTracker(store.name(id), store.ticker(id));
+        store.forEachRow(id, tracker);
+        if (tracker.best() == null)
+            return null;
+
+        return new TickerTrade(tracker.getTicker(), tracker.getName(), tracker.best(), tracker.returnPct());
+    }
+
+    //scans tickers [from, to), halving by row count until a part is small enough
+    private static class ScanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final TickStore store;
+        private final long[] rowsBefore;
+        private final TickerTrade[] best;
+        private final int from;
+        private final int to;
+
+        ScanTask(TickStore store, long[] rowsBefore, TickerTrade[] best, int from, int to) {
+            this.store = store;
+            this.rowsBefore = rowsBefore;
+            this.best = best;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1 || rowsBefore[to] - rowsBefore[from] <= TASK_ROWS) {
+                for (int id = from; id < to; id++) {
+                    best[id] = scanTicker(store, id);
+                }
+                return;
+            }
+
+            int mid = split(from, to);
+            ScanTask left = new ScanTask(store, rowsBefore, best, from, mid);
+            ScanTask right = new ScanTask(store, rowsBefore, best, mid, to);
+            right.fork();
+            left.compute();
+            right.join();
+        }
+
+        //first ticker id at or past the middle row of [from, to), kept strictly inside the range
+        private int split(int from, int to) {
+            long middle = (rowsBefore[from] + rowsBefore[to]) >>> 1;
+            int lo = from + 1;
+            int hi = to - 1;
+            while (lo < hi) {
+                int m = (lo + hi) >>> 1;
+                if (rowsBefore[m] < middle)
+                    lo = m + 1;
+                else
+                    hi = m;
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package stockmarket.algorithms;
+
+import stockmarket.datastructures.MapView;
+import stockmarket.models.Stock;
+
+import java.util.function.ToDoubleFunction;
+
+//numeric keys a stock can be ranked or sorted by
+public enum PriceKey implements ToDoubleFunction<Stock> {
+    HIGH {
+        public double applyAsDouble(Stock s) {
+            return s.getHighPrice();
+        }
+    },
+    LOW {
+        public double applyAsDouble(Stock s) {
+            return s.getLowPrice();
+        }
+    },
+    AVG {
+        public double applyAsDouble(Stock s) {
+            return s.getAvgPrice();
+        }
+    },
+    //intraday range, high minus low
+    RANGE {
+        public double applyAsDouble(Stock s) {
+            return s.getHighPrice() - s.getLowPrice();
+        }
+    };
+
+    //change of the average price since the previous day's quotes, in percent
+    //(0 for a ticker that has no previous quote)
+    public static ToDoubleFunction<Stock> dailyChange(MapView<String, Stock> previous) {
+        return s -> {
+            Stock before = previous.get(s.getTicker());
+            if (before == null || before.getAvgPrice() == 0)
+                return 0;
+            return (s.getAvgPrice() - before.getAvgPrice()) / before.getAvgPrice() * 100;
+        };
+    }
+}
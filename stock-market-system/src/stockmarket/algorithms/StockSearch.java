@@ -1,11 +1,25 @@
 package stockmarket.algorithms;
 
 import stockmarket.models.Stock;
-import stockmarket.datastructures.CustomHashMap;
+import stockmarket.datastructures.CustomArrayList;
+import stockmarket.datastructures.MapView;
 
 public class StockSearch {
 
-    public static Stock searchByTicker(CustomHashMap<String, Stock> stockMap, String ticker) {
+    public static Stock searchByTicker(MapView<String, Stock> stockMap, String ticker) {
         return stockMap.get(ticker.toUpperCase());
     }
-}
\ No newline at end of file
+
+    //up to limit stocks whose ticker or company name starts with prefix (any case)
+    public static CustomArrayList<Stock> searchByPrefix(SymbolIndex index, MapView<String, Stock> stockMap,
+            String prefix, int limit) {
+        CustomArrayList<String> tickers = index.search(prefix, limit);
+        CustomArrayList<Stock> matches = new CustomArrayList<>(tickers.size());
+        for (String ticker : tickers) {
+            Stock stock = stockMap.get(ticker);
+            if (stock != null)
+                matches.add(stock);
+        }
+        return matches;
+    }
+}
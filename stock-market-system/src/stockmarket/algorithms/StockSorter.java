@@ -3,43 +3,192 @@ package stockmarket.algorithms;
 import stockmarket.models.Stock;
 import stockmarket.datastructures.CustomArrayList;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+//sorts stocks by high price with an introsort over primitive keys:
+//the prices are copied once into a double[] and sorted together with an int[] permutation,
+//so comparisons never go through CustomArrayList.get or a Stock getter.
+//median-of-three quicksort, insertion sort below INSERTION_CUTOFF and a heapsort fallback
+//once the recursion gets too deep, so sorted, reverse and adversarial input all stay O(n log n).
+//large lists are sorted in parallel: both halves of a partition are independent ranges
 public class StockSorter {
+    private static final int INSERTION_CUTOFF = 16;
+    // below this many stocks a parallel sort is slower than a sequential one
+    private static final int PARALLEL_MIN = 1 << 15;
+    // partitions smaller than this are finished by the thread that created them
+    private static final int PARALLEL_GRAIN = 1 << 13;
 
     public static void sortByPrice(CustomArrayList<Stock> stocks, boolean ascending) {
-        if (stocks.size() <= 1)
+        sortByPrice(stocks, ascending, stocks.size() >= PARALLEL_MIN);
+    }
+
+    public static void sortByPrice(CustomArrayList<Stock> stocks, boolean ascending, boolean parallel) {
+        int n = stocks.size();
+        if (n <= 1)
             return;
-        quickSort(stocks, 0, stocks.size() - 1, ascending);
+
+        Stock[] items = stocks.toArray(new Stock[n]);
+        double[] keys = new double[n];
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = items[i].getHighPrice();
+            order[i] = i;
+        }
+
+        sort(keys, order, parallel);
+
+        // order is ascending; descending output reads it from the back
+        for (int i = 0; i < n; i++) {
+            stocks.set(i, items[order[ascending ? i : n - 1 - i]]);
+        }
     }
 
-    private static void quickSort(CustomArrayList<Stock> stocks, int low, int high, boolean ascending) {
-        if (low < high) {
-            int pivotIndex = partition(stocks, low, high, ascending);
-            quickSort(stocks, low, pivotIndex - 1, ascending);
-            quickSort(stocks, pivotIndex + 1, high, ascending);
+    //sorts keys ascending and applies the same moves to order (keys[i] belongs to order[i])
+    public static void sort(double[] keys, int[] order, boolean parallel) {
+        int n = keys.length;
+        int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(n));
+        if (parallel && n >= PARALLEL_GRAIN) {
+            ForkJoinPool.commonPool().invoke(new SortTask(keys, order, 0, n - 1, depthLimit));
+        } else {
+            introSort(keys, order, 0, n - 1, depthLimit);
         }
     }
 
-    private static int partition(CustomArrayList<Stock> stocks, int low, int high, boolean ascending) {
-        Stock pivot = stocks.get(high);
-        double pivotPrice = pivot.getHighPrice();
-        int i = low - 1;
+    // --------------------------------------------------------
+    // SEQUENTIAL INTROSORT ON [lo, hi]
+    // --------------------------------------------------------
+    private static void introSort(double[] keys, int[] order, int lo, int hi, int depthLimit) {
+        // recurse into the smaller side and loop on the larger, so the stack stays O(log n)
+        while (hi - lo + 1 > INSERTION_CUTOFF) {
+            if (depthLimit-- == 0) {
+                heapSort(keys, order, lo, hi);
+                return;
+            }
+            int p = partition(keys, order, lo, hi);
+            if (p - lo < hi - p) {
+                introSort(keys, order, lo, p, depthLimit);
+                lo = p + 1;
+            } else {
+                introSort(keys, order, p + 1, hi, depthLimit);
+                hi = p;
+            }
+        }
+        insertionSort(keys, order, lo, hi);
+    }
 
-        for (int j = low; j < high; j++) {
-            double currentPrice = stocks.get(j).getHighPrice();
-            boolean shouldSwap = ascending ? (currentPrice <= pivotPrice) : (currentPrice >= pivotPrice);
+    //Hoare partition around the median of lo, mid and hi; returns p with
+    //every key in [lo, p] <= every key in [p + 1, hi]. Runs of equal keys split evenly
+    private static int partition(double[] keys, int[] order, int lo, int hi) {
+        int mid = (lo + hi) >>> 1;
+        if (keys[mid] < keys[lo])
+            swap(keys, order, mid, lo);
+        if (keys[hi] < keys[lo])
+            swap(keys, order, hi, lo);
+        if (keys[hi] < keys[mid])
+            swap(keys, order, hi, mid);
+        double pivot = keys[mid];
 
-            if (shouldSwap) {
+        int i = lo - 1;
+        int j = hi + 1;
+        while (true) {
+            do {
                 i++;
-                swap(stocks, i, j);
+            } while (keys[i] < pivot);
+            do {
+                j--;
+            } while (keys[j] > pivot);
+            if (i >= j)
+                return j;
+            swap(keys, order, i, j);
+        }
+    }
+
+    private static void insertionSort(double[] keys, int[] order, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            double key = keys[i];
+            int idx = order[i];
+            int j = i - 1;
+            while (j >= lo && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                order[j + 1] = order[j];
+                j--;
             }
+            keys[j + 1] = key;
+            order[j + 1] = idx;
         }
-        swap(stocks, i + 1, high);
-        return i + 1;
     }
 
-    private static void swap(CustomArrayList<Stock> stocks, int i, int j) {
-        Stock temp = stocks.get(i);
-        stocks.set(i, stocks.get(j));
-        stocks.set(j, temp);
+    private static void heapSort(double[] keys, int[] order, int lo, int hi) {
+        int n = hi - lo + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(keys, order, lo, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(keys, order, lo, lo + end);
+            siftDown(keys, order, lo, 0, end);
+        }
+    }
+
+    //max-heap over keys[lo, lo + n), i is relative to lo
+    private static void siftDown(double[] keys, int[] order, int lo, int i, int n) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n)
+                return;
+            if (child + 1 < n && keys[lo + child + 1] > keys[lo + child])
+                child++;
+            if (keys[lo + i] >= keys[lo + child])
+                return;
+            swap(keys, order, lo + i, lo + child);
+            i = child;
+        }
+    }
+
+    private static void swap(double[] keys, int[] order, int i, int j) {
+        double k = keys[i];
+        keys[i] = keys[j];
+        keys[j] = k;
+        int o = order[i];
+        order[i] = order[j];
+        order[j] = o;
+    }
+
+    // --------------------------------------------------------
+    // PARALLEL MODE (FORK-JOIN)
+    // --------------------------------------------------------
+
+    //partitions [lo, hi] and sorts the two sides as separate tasks;
+    //small ranges fall back to the sequential introsort
+    private static class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] keys;
+        private final int[] order;
+        private final int lo;
+        private final int hi;
+        private final int depthLimit;
+
+        SortTask(double[] keys, int[] order, int lo, int hi, int depthLimit) {
+            this.keys = keys;
+            this.order = order;
+            this.lo = lo;
+            this.hi = hi;
+            this.depthLimit = depthLimit;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo + 1 < PARALLEL_GRAIN || depthLimit == 0) {
+                introSort(keys, order, lo, hi, depthLimit);
+                return;
+            }
+            int p = partition(keys, order, lo, hi);
+            SortTask left = new SortTask(keys, order, lo, p, depthLimit - 1);
+            SortTask right = new SortTask(keys, order, p + 1, hi, depthLimit - 1);
+            right.fork();
+            left.compute();
+            right.join();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,158 @@
+package stockmarket.algorithms;
+
+import stockmarket.datastructures.CustomArrayList;
+import stockmarket.datastructures.OpenHashSet;
+
+//case-insensitive prefix index over tickers and company names, for search and autocomplete
+//two compact tries (children kept in sorted char arrays): one over tickers, one over the
+//company name and every word inside it, so "chase" finds JPMorgan Chase.
+//a query walks the prefix and then collects matches depth-first, stopping after limit results,
+//so its cost depends on the prefix length and the number of results, not on the number of tickers
+public class SymbolIndex {
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_NODES = new Node[0];
+    private static final String[] NO_TICKERS = new String[0];
+
+    private static class Node {
+        char[] keys = NO_KEYS;
+        Node[] children = NO_NODES;
+        int childCount;
+        // tickers whose indexed key ends at this node
+        String[] tickers = NO_TICKERS;
+        int tickerCount;
+
+        Node child(char c) {
+            int i = find(c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childOrAdd(char c) {
+            int i = find(c);
+            if (i >= 0)
+                return children[i];
+
+            int at = -(i + 1);
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, keys.length * 2);
+                char[] newKeys = new char[capacity];
+                Node[] newChildren = new Node[capacity];
+                System.arraycopy(keys, 0, newKeys, 0, childCount);
+                System.arraycopy(children, 0, newChildren, 0, childCount);
+                keys = newKeys;
+                children = newChildren;
+            }
+            System.arraycopy(keys, at, keys, at + 1, childCount - at);
+            System.arraycopy(children, at, children, at + 1, childCount - at);
+            keys[at] = c;
+            children[at] = new Node();
+            childCount++;
+            return children[at];
+        }
+
+        //binary search over the sorted keys; -(insertion point + 1) when absent
+        int find(char c) {
+            int lo = 0;
+            int hi = childCount - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid] < c)
+                    lo = mid + 1;
+                else if (keys[mid] > c)
+                    hi = mid - 1;
+                else
+                    return mid;
+            }
+            return -(lo + 1);
+        }
+
+        void addTicker(String ticker) {
+            for (int i = 0; i < tickerCount; i++) {
+                if (tickers[i].equals(ticker))
+                    return;
+            }
+            if (tickerCount == tickers.length) {
+                String[] grown = new String[Math.max(1, tickers.length * 2)];
+                System.arraycopy(tickers, 0, grown, 0, tickerCount);
+                tickers = grown;
+            }
+            tickers[tickerCount++] = ticker;
+        }
+    }
+
+    private final Node tickerRoot = new Node();
+    private final Node nameRoot = new Node();
+    private final OpenHashSet<String> indexed = new OpenHashSet<>();
+
+    // --------------------------------------------------------
+    // INCREMENTAL UPDATES
+    // --------------------------------------------------------
+
+    //indexes a ticker and its company name; adding a known ticker again is a no-op
+    public void add(String ticker, String name) {
+        if (!indexed.add(ticker))
+            return;
+
+        insert(tickerRoot, ticker, 0, ticker.length(), ticker);
+
+        // the full name and every word in it
+        int wordStart = 0;
+        for (int i = 0; i <= name.length(); i++) {
+            if (i == name.length() || name.charAt(i) == ' ') {
+                if (i > wordStart)
+                    insert(nameRoot, name, wordStart, name.length(), ticker);
+                wordStart = i + 1;
+            }
+        }
+    }
+
+    public int size() {
+        return indexed.size();
+    }
+
+    private static void insert(Node root, String key, int from, int to, String ticker) {
+        Node node = root;
+        for (int i = from; i < to; i++) {
+            node = node.childOrAdd(Character.toLowerCase(key.charAt(i)));
+        }
+        node.addTicker(ticker);
+    }
+
+    // --------------------------------------------------------
+    // QUERIES
+    // --------------------------------------------------------
+
+    //up to limit tickers whose symbol or company name (or a word of it) starts with prefix,
+    //ignoring case; ticker matches come first, each group in alphabetical order
+    public CustomArrayList<String> search(String prefix, int limit) {
+        CustomArrayList<String> result = new CustomArrayList<>(Math.min(limit, 16));
+        String key = prefix.trim();
+        if (key.isEmpty() || limit <= 0)
+            return result;
+
+        collect(walk(tickerRoot, key), result, limit);
+        collect(walk(nameRoot, key), result, limit);
+        return result;
+    }
+
+    private static Node walk(Node root, String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(Character.toLowerCase(prefix.charAt(i)));
+        }
+        return node;
+    }
+
+    //depth-first in key order; every node lies on a path to some ticker, so no dead ends are visited
+    private static void collect(Node node, CustomArrayList<String> result, int limit) {
+        if (node == null || result.size() >= limit)
+            return;
+
+        for (int i = 0; i < node.tickerCount && result.size() < limit; i++) {
+            if (!result.contains(node.tickers[i]))
+                result.add(node.tickers[i]);
+        }
+        for (int i = 0; i < node.childCount && result.size() < limit; i++) {
+            collect(node.children[i], result, limit);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package stockmarket.algorithms;
+
+import stockmarket.datastructures.CustomArrayList;
+import stockmarket.datastructures.MapView;
+
+import java.util.function.ToDoubleFunction;
+
+//keeps the k items with the highest (or lowest) key out of a stream of offers, O(n log k) overall.
+//a bounded binary heap of size k holds the current best k with the weakest one on top,
+//so a new item only costs a compare unless it beats the weakest.
+//keys are read once per offer into a parallel double[], so the heap never calls the key function
+public class TopK<T> {
+    private final int k;
+    private final ToDoubleFunction<? super T> key;
+    // +1 keeps the highest keys, -1 keeps the lowest (stored negated, so both use a min-heap)
+    private final double sign;
+
+    private final Object[] items;
+    private final double[] keys;
+    private int size;
+
+    public TopK(int k, ToDoubleFunction<? super T> key, boolean highest) {
+        if (k < 0)
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        this.k = k;
+        this.key = key;
+        this.sign = highest ? 1 : -1;
+        this.items = new Object[k];
+        this.keys = new double[k];
+    }
+
+    // --------------------------------------------------------
+    // ONE-SHOT HELPERS
+    // --------------------------------------------------------
+
+    //the k values of the map with the highest key, best first
+    public static <T> CustomArrayList<T> highest(MapView<?, T> map, int k, ToDoubleFunction<? super T> key) {
+        TopK<T> top = new TopK<>(k, key, true);
+        map.forEachValue(top::offer);
+        return top.result();
+    }
+
+    //the k values of the map with the lowest key, lowest first
+    public static <T> CustomArrayList<T> lowest(MapView<?, T> map, int k, ToDoubleFunction<? super T> key) {
+        TopK<T> top = new TopK<>(k, key, false);
+        map.forEachValue(top::offer);
+        return top.result();
+    }
+
+    public static <T> CustomArrayList<T> highest(Iterable<T> items, int k, ToDoubleFunction<? super T> key) {
+        TopK<T> top = new TopK<>(k, key, true);
+        for (T item : items) {
+            top.offer(item);
+        }
+        return top.result();
+    }
+
+    public static <T> CustomArrayList<T> lowest(Iterable<T> items, int k, ToDoubleFunction<? super T> key) {
+        TopK<T> top = new TopK<>(k, key, false);
+        for (T item : items) {
+            top.offer(item);
+        }
+        return top.result();
+    }
+
+    // --------------------------------------------------------
+    // BOUNDED HEAP
+    // --------------------------------------------------------
+    public void offer(T item) {
+        if (k == 0)
+            return;
+        double value = sign * key.applyAsDouble(item);
+
+        if (size < k) {
+            items[size] = item;
+            keys[size] = value;
+            siftUp(size++);
+        } else if (value > keys[0]) {
+            // beats the weakest kept item: replace the root and restore the heap
+            items[0] = item;
+            keys[0] = value;
+            siftDown(0);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    //the kept items ordered best first; the heap itself is left unchanged
+    @SuppressWarnings("unchecked")
+    public CustomArrayList<T> result() {
+        Object[] heapItems = new Object[size];
+        double[] heapKeys = new double[size];
+        System.arraycopy(items, 0, heapItems, 0, size);
+        System.arraycopy(keys, 0, heapKeys, 0, size);
+
+        // pop the weakest repeatedly into the back of the array (heapsort on the copy)
+        for (int end = size - 1; end > 0; end--) {
+            swap(heapItems, heapKeys, 0, end);
+            siftDown(heapItems, heapKeys, 0, end);
+        }
+
+        CustomArrayList<T> out = new CustomArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            out.add((T) heapItems[i]);
+        }
+        return out;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= keys[i])
+                return;
+            swap(items, keys, parent, i);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        siftDown(items, keys, i, size);
+    }
+
+    //min-heap over [0, n)
+    private static void siftDown(Object[] items, double[] keys, int i, int n) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n)
+                return;
+            if (child + 1 < n && keys[child + 1] < keys[child])
+                child++;
+            if (keys[i] <= keys[child])
+                return;
+            swap(items, keys, i, child);
+            i = child;
+        }
+    }
+
+    private static void swap(Object[] items, double[] keys, int i, int j) {
+        Object item = items[i];
+        items[i] = items[j];
+        items[j] = item;
+        double k = keys[i];
+        keys[i] = keys[j];
+        keys[j] = k;
+    }
+}
@@ -0,0 +1,219 @@
+package stockmarket.algorithms;
+
+import stockmarket.datastructures.PriceBars;
+
+//segment tree over one ticker's history for best buy/sell queries on any date window.
+//every node covers a range of days and stores its lowest low, its highest high and the best
+//trade inside it (buy at a low, sell at the high of a later day). Two neighbouring ranges combine in O(1):
+//the best trade is the better of the two inner trades or "buy at the left minimum, sell at the right maximum".
+//built once in O(n), then any [fromDate, toDate] window is answered in O(log n)
+public class TradeWindowTree {
+    private final int n;
+    private final int leaves;
+    private final int[] dates;
+
+    // node i has children 2i and 2i + 1, leaves start at index `leaves`
+    private final double[] minLow;
+    private final int[] minDay;
+    private final double[] maxHigh;
+    private final int[] maxDay;
+    private final double[] best;
+    private final int[] bestBuy;
+    private final int[] bestSell;
+
+    public TradeWindowTree(PriceBars history) {
+        this.n = history.size();
+        int size = 1;
+        while (size < n) {
+            size <<= 1;
+        }
+        this.leaves = size;
+        this.dates = new int[n];
+        this.minLow = new double[2 * size];
+        this.minDay = new int[2 * size];
+        this.maxHigh = new double[2 * size];
+        this.maxDay = new int[2 * size];
+        this.best = new double[2 * size];
+        this.bestBuy = new int[2 * size];
+        this.bestSell = new int[2 * size];
+
+        for (int i = 0; i < size; i++) {
+            int node = size + i;
+            if (i < n) {
+                dates[i] = history.date(i);
+                minLow[node] = history.low(i);
+                maxHigh[node] = history.high(i);
+            } else {
+                minLow[node] = Double.POSITIVE_INFINITY;
+                maxHigh[node] = Double.NEGATIVE_INFINITY;
+            }
+            minDay[node] = i;
+            maxDay[node] = i;
+            // a single day holds no trade: selling needs a later day
+            best[node] = Double.NEGATIVE_INFINITY;
+            bestBuy[node] = -1;
+            bestSell[node] = -1;
+        }
+        for (int node = size - 1; node >= 1; node--) {
+            pull(node);
+        }
+    }
+
+    public int size() {
+        return n;
+    }
+
+    //combines the two children of node
+    private void pull(int node) {
+        int l = 2 * node;
+        int r = l + 1;
+        if (minLow[l] <= minLow[r]) {
+            minLow[node] = minLow[l];
+            minDay[node] = minDay[l];
+        } else {
+            minLow[node] = minLow[r];
+            minDay[node] = minDay[r];
+        }
+        if (maxHigh[r] >= maxHigh[l]) {
+            maxHigh[node] = maxHigh[r];
+            maxDay[node] = maxDay[r];
+        } else {
+            maxHigh[node] = maxHigh[l];
+            maxDay[node] = maxDay[l];
+        }
+
+        best[node] = best[l];
+        bestBuy[node] = bestBuy[l];
+        bestSell[node] = bestSell[l];
+        if (best[r] > best[node]) {
+            best[node] = best[r];
+            bestBuy[node] = bestBuy[r];
+            bestSell[node] = bestSell[r];
+        }
+        double across = maxHigh[r] - minLow[l];
+        if (across > best[node]) {
+            best[node] = across;
+            bestBuy[node] = minDay[l];
+            bestSell[node] = maxDay[r];
+        }
+    }
+
+    // --------------------------------------------------------
+    // QUERIES
+    // --------------------------------------------------------
+
+    //best trade with fromDate <= buy date < sell date <= toDate, or null when no trade in the window makes money
+    public BestBuySellFinder.BuySellResult bestBetween(int fromDate, int toDate) {
+        return best(firstOnOrAfter(fromDate), firstOnOrAfter(toDate + 1) - 1);
+    }
+
+    //best trade with buy and sell day inside [from, to] (indexes into the history)
+    public BestBuySellFinder.BuySellResult best(int from, int to) {
+        from = Math.max(from, 0);
+        to = Math.min(to, n - 1);
+        if (to - from < 1)
+            return null;
+
+        // the covering nodes are combined strictly left to right: left-side nodes into `left`,
+        // right-side nodes into `right` (prepended), then left + right
+        Window left = new Window();
+        Window right = new Window();
+        int lo = from + leaves;
+        int hi = to + leaves + 1;
+        while (lo < hi) {
+            if ((lo & 1) == 1)
+                left.append(this, lo++);
+            if ((hi & 1) == 1)
+                right.prepend(this, --hi);
+            lo >>= 1;
+            hi >>= 1;
+        }
+        left.appendWindow(right);
+
+        if (left.best <= 0)
+            return null;
+        return new BestBuySellFinder.BuySellResult(left.buy, left.sell, left.best,
+                dates[left.buy], dates[left.sell]);
+    }
+
+    //first index whose date is on or after epochDay (n when there is none)
+    private int firstOnOrAfter(int epochDay) {
+        int lo = 0;
+        int hi = n;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (dates[mid] < epochDay)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    //summary of a run of consecutive days, built while walking the tree
+    private static class Window {
+        double minLow = Double.POSITIVE_INFINITY;
+        int minDay = -1;
+        double maxHigh = Double.NEGATIVE_INFINITY;
+        int maxDay = -1;
+        double best = Double.NEGATIVE_INFINITY;
+        int buy = -1;
+        int sell = -1;
+
+        //this window followed by the days of node
+        void append(TradeWindowTree t, int node) {
+            combine(minLow, minDay, maxHigh, maxDay, best, buy, sell,
+                    t.minLow[node], t.minDay[node], t.maxHigh[node], t.maxDay[node],
+                    t.best[node], t.bestBuy[node], t.bestSell[node]);
+        }
+
+        //the days of node followed by this window
+        void prepend(TradeWindowTree t, int node) {
+            combine(t.minLow[node], t.minDay[node], t.maxHigh[node], t.maxDay[node],
+                    t.best[node], t.bestBuy[node], t.bestSell[node],
+                    minLow, minDay, maxHigh, maxDay, best, buy, sell);
+        }
+
+        void appendWindow(Window w) {
+            combine(minLow, minDay, maxHigh, maxDay, best, buy, sell,
+                    w.minLow, w.minDay, w.maxHigh, w.maxDay, w.best, w.buy, w.sell);
+        }
+
+        //same rule as pull(): a = earlier days, b = later days
+        private void combine(double aMin, int aMinDay, double aMax, int aMaxDay, double aBest, int aBuy, int aSell,
+                double bMin, int bMinDay, double bMax, int bMaxDay, double bBest, int bBuy, int bSell) {
+            double across = bMax - aMin;
+            int acrossBuy = aMinDay;
+            int acrossSell = bMaxDay;
+
+            best = aBest;
+            buy = aBuy;
+            sell = aSell;
+            if (bBest > best) {
+                best = bBest;
+                buy = bBuy;
+                sell = bSell;
+            }
+            if (across > best) {
+                best = across;
+                buy = acrossBuy;
+                sell = acrossSell;
+            }
+
+            if (aMin <= bMin) {
+                minLow = aMin;
+                minDay = aMinDay;
+            } else {
+                minLow = bMin;
+                minDay = bMinDay;
+            }
+            if (bMax >= aMax) {
+                maxHigh = bMax;
+                maxDay = bMaxDay;
+            } else {
+                maxHigh = aMax;
+                maxDay = aMaxDay;
+            }
+        }
+    }
+}
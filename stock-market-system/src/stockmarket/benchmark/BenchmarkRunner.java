@@ -1,17 +1,37 @@
 package stockmarket.benchmark;
 
+import stockmarket.models.MarketDate;
 import stockmarket.models.Stock;
+import stockmarket.datastructures.ConcurrentCustomHashMap;
 import stockmarket.datastructures.CustomHashMap;
+import stockmarket.datastructures.CustomMap;
+import stockmarket.datastructures.OffHeapPriceSeries;
+import stockmarket.datastructures.OpenHashMap;
+import stockmarket.datastructures.PriceBars;
+import stockmarket.datastructures.PriceIndex;
+import stockmarket.datastructures.PriceSeries;
 import stockmarket.datastructures.CustomArrayList;
 import stockmarket.algorithms.StockSearch;
 import stockmarket.algorithms.BestBuySellFinder;
 import stockmarket.algorithms.StockSorter;
+import stockmarket.algorithms.PriceKey;
+import stockmarket.algorithms.TopK;
+import stockmarket.algorithms.TradeWindowTree;
+import stockmarket.algorithms.MarketTradeScan;
+import stockmarket.algorithms.BestTradeTracker;
 import stockmarket.algorithms.PriceSimulator;
+import stockmarket.storage.CsvRowParser;
+import stockmarket.storage.TickStore;
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
 
 public class BenchmarkRunner {
+    private static final int BASE_DAY = MarketDate.parse("01-01-2025");
 
     public static void runBenchmarks() {
         System.out.println("\n" + "=".repeat(80));
@@ -30,6 +50,18 @@ public class BenchmarkRunner {
                 benchmarkStockSearch(writer, size);
                 benchmarkBestBuySell(writer, size);
                 benchmarkStockSort(writer, size);
+                benchmarkSortOrders(writer, size);
+                benchmarkTopK(writer, size);
+                benchmarkPriceIndex(writer, size);
+                benchmarkMultiTrade(writer, size);
+                benchmarkTradeWindows(writer, size);
+                benchmarkMarketScan(writer, size);
+                benchmarkBestTradeTracker(writer, size);
+                benchmarkCsvParse(writer, size);
+                benchmarkHashMaps(writer, size);
+                benchmarkHashMapResize(writer, size);
+                benchmarkConcurrentMap(writer, size);
+                benchmarkSeriesScan(writer, size);
             }
 
             writer.close();
@@ -43,7 +75,7 @@ public class BenchmarkRunner {
     }
 
     private static void benchmarkStockSearch(BufferedWriter writer, int size) throws IOException {
-        CustomHashMap<String, Stock> stockMap = generateStockData(size);
+        CustomMap<String, Stock> stockMap = generateStockData(size);
 
         for (int i = 0; i < 100; i++) {
             StockSearch.searchByTicker(stockMap, "STOCK" + (i % size));
@@ -70,7 +102,7 @@ public class BenchmarkRunner {
     }
 
     private static void benchmarkBestBuySell(BufferedWriter writer, int size) throws IOException {
-        CustomArrayList<Stock> history = generateStockHistory(size);
+        PriceSeries history = generateStockHistory(size);
 
         for (int i = 0; i < 10; i++) {
             BestBuySellFinder.findBestBuySellDays(history);
@@ -125,24 +157,579 @@ public class BenchmarkRunner {
         System.out.printf("  Stock Sort: %.4f ms, %d KB\n", timeMs, memoryKB);
     }
 
-    private static CustomHashMap<String, Stock> generateStockData(int size) {
-        CustomHashMap<String, Stock> map = new CustomHashMap<>();
+    //introsort on size * 1000 stocks that arrive in random, already sorted and reverse order,
+    //sequential against the fork-join mode (the old last-element quicksort was O(n^2) on the last two)
+    private static void benchmarkSortOrders(BufferedWriter writer, int size) throws IOException {
+        int n = size * 1000;
+        CustomArrayList<Stock> random = generateStockList(n);
+        CustomArrayList<Stock> sorted = new CustomArrayList<>(n);
+        sorted.addAll(random);
+        StockSorter.sortByPrice(sorted, true, false);
+        CustomArrayList<Stock> reverse = new CustomArrayList<>(n);
+        reverse.addAll(sorted);
+        StockSorter.sortByPrice(reverse, false, false);
+
+        String[] names = { "Random", "Sorted", "Reverse" };
+        CustomArrayList<CustomArrayList<Stock>> inputs = new CustomArrayList<>(names.length);
+        inputs.add(random);
+        inputs.add(sorted);
+        inputs.add(reverse);
+        for (int k = 0; k < inputs.size(); k++) {
+            double seqMs = timeSort(inputs.get(k), false);
+            double parMs = timeSort(inputs.get(k), true);
+            writer.write(String.format("StockSort%s,%d,%.4f,0\n", names[k], n, seqMs));
+            writer.write(String.format("StockSort%sParallel,%d,%.4f,0\n", names[k], n, parMs));
+            System.out.printf("  Sort %d stocks (%s): %.4f ms sequential, %.4f ms parallel\n",
+                    n, names[k].toLowerCase(), seqMs, parMs);
+        }
+    }
+
+    //average of 5 timed runs after 3 warm-up runs, each on a fresh copy of input
+    private static double timeSort(CustomArrayList<Stock> input, boolean parallel) {
+        long total = 0;
+        for (int i = 0; i < 8; i++) {
+            CustomArrayList<Stock> copy = new CustomArrayList<>(input.size());
+            copy.addAll(input);
+            long startTime = System.nanoTime();
+            StockSorter.sortByPrice(copy, true, parallel);
+            if (i >= 3)
+                total += System.nanoTime() - startTime;
+        }
+        return total / 5 / 1000000.0;
+    }
+
+    //first page (20 highest priced) out of size * 1000 stocks: bounded heap against a full sort
+    private static void benchmarkTopK(BufferedWriter writer, int size) throws IOException {
+        int n = size * 1000;
+        int k = 20;
+        CustomArrayList<Stock> stocks = generateStockList(n);
+
+        for (int i = 0; i < 5; i++) {
+            TopK.highest(stocks, k, PriceKey.HIGH);
+        }
+        long startTime = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            TopK.highest(stocks, k, PriceKey.HIGH);
+        }
+        double topMs = (System.nanoTime() - startTime) / 10 / 1000000.0;
+
+        double sortMs = timeSort(stocks, false);
+
+        writer.write(String.format("TopK,%d,%.4f,0\n", n, topMs));
+        writer.write(String.format("TopKFullSort,%d,%.4f,0\n", n, sortMs));
+        System.out.printf("  Top %d of %d stocks: %.4f ms bounded heap, %.4f ms full sort\n", k, n, topMs, sortMs);
+    }
+
+    //price index over size * 1000 stocks: cost of one simulated day (every ticker re-priced by a few
+    //percent, one replace each) and of a 20-stock page, against a TopK pass over all stocks
+    private static void benchmarkPriceIndex(BufferedWriter writer, int size) throws IOException {
+        int n = size * 1000;
+        int k = 20;
+        CustomArrayList<Stock> stocks = generateStockList(n);
+        PriceIndex index = PriceIndex.empty();
+        for (int i = 0; i < n; i++) {
+            index = index.insert(stocks.get(i));
+        }
+
+        Stock[] next = new Stock[n];
+        for (int i = 0; i < n; i++) {
+            Stock s = stocks.get(i);
+            double factor = 0.97 + Math.random() * 0.06;
+            next[i] = new Stock(s.getName(), s.getTicker(), BASE_DAY + 1,
+                    s.getHighPrice() * factor, s.getLowPrice() * factor);
+        }
+        long startTime = System.nanoTime();
+        PriceIndex day = index;
+        for (int i = 0; i < n; i++) {
+            day = day.replace(stocks.get(i), next[i]);
+        }
+        double dayMs = (System.nanoTime() - startTime) / 1000000.0;
+
+        for (int i = 0; i < 5; i++) {
+            day.page(0, k, false);
+        }
+        startTime = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            day.page(0, k, false);
+        }
+        double pageMs = (System.nanoTime() - startTime) / 1000 / 1000000.0;
+
+        startTime = System.nanoTime();
+        TopK.highest(stocks, k, PriceKey.HIGH);
+        double topMs = (System.nanoTime() - startTime) / 1000000.0;
+
+        writer.write(String.format("PriceIndexDay,%d,%.4f,0\n", n, dayMs));
+        writer.write(String.format("PriceIndexPage,%d,%.4f,0\n", n, pageMs));
+        System.out.printf("  Price index, %d stocks: %.4f ms per day (%.0f ns per update), page of %d %.4f ms (TopK %.4f ms)\n",
+                n, dayMs, dayMs * 1000000.0 / n, k, pageMs, topMs);
+    }
+
+    //trade planning over size * 20 days: up to 100 trades with a fee and a one-day cooldown (O(n * k)),
+    //and the same with no trade limit (O(n))
+    private static void benchmarkMultiTrade(BufferedWriter writer, int size) throws IOException {
+        int days = size * 20;
+        int k = 100;
+        PriceSeries history = generateStockHistory(days);
+
+        for (int i = 0; i < 5; i++) {
+            BestBuySellFinder.findBestTrades(history, k, 0.5, 1);
+            BestBuySellFinder.findBestTradesUnlimited(history, 0.5, 1);
+        }
+
+        long startTime = System.nanoTime();
+        BestBuySellFinder.TradePlan plan = BestBuySellFinder.findBestTrades(history, k, 0.5, 1);
+        double limitedMs = (System.nanoTime() - startTime) / 1000000.0;
+
+        startTime = System.nanoTime();
+        BestBuySellFinder.TradePlan unlimited = BestBuySellFinder.findBestTradesUnlimited(history, 0.5, 1);
+        double unlimitedMs = (System.nanoTime() - startTime) / 1000000.0;
+
+        writer.write(String.format("MultiTradeK%d,%d,%.4f,0\n", k, days, limitedMs));
+        writer.write(String.format("MultiTradeUnlimited,%d,%.4f,0\n", days, unlimitedMs));
+        System.out.printf("  Trade plan over %d days: %.4f ms for k=%d (%d trades), %.4f ms unlimited (%d trades)\n",
+                days, limitedMs, k, plan.trades.size(), unlimitedMs, unlimited.trades.size());
+    }
+
+    //1000 random date windows over size * 1000 days: segment tree queries against slicing
+    //the window and re-running the single-pass finder on it
+    private static void benchmarkTradeWindows(BufferedWriter writer, int size) throws IOException {
+        int days = size * 1000;
+        int queries = 1000;
+        PriceSeries history = generateStockHistory(days);
+        int[] from = new int[queries];
+        int[] to = new int[queries];
+        for (int q = 0; q < queries; q++) {
+            int a = (int) (Math.random() * days);
+            int b = (int) (Math.random() * days);
+            from[q] = history.date(Math.min(a, b));
+            to[q] = history.date(Math.max(a, b));
+        }
+
+        long startTime = System.nanoTime();
+        TradeWindowTree tree = new TradeWindowTree(history);
+        double buildMs = (System.nanoTime() - startTime) / 1000000.0;
+
+        for (int q = 0; q < queries; q++) {
+            tree.bestBetween(from[q], to[q]);
+        }
+        startTime = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            tree.bestBetween(from[q], to[q]);
+        }
+        double treeMs = (System.nanoTime() - startTime) / 1000000.0;
+
+        startTime = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            BestBuySellFinder.findBestBuySellDays(
+                    history.slice(history.indexOfDate(from[q]), history.indexOfDate(to[q] + 1)));
+        }
+        double scanMs = (System.nanoTime() - startTime) / 1000000.0;
+
+        writer.write(String.format("TradeWindowBuild,%d,%.4f,0\n", days, buildMs));
+        writer.write(String.format("TradeWindowQueries,%d,%.4f,0\n", days, treeMs));
+        writer.write(String.format("TradeWindowRescan,%d,%.4f,0\n", days, scanMs));
+        System.out.printf("  %d date windows over %d days: build %.4f ms, %.4f ms with the tree, %.4f ms rescanning\n",
+                queries, days, buildMs, treeMs, scanMs);
+    }
+
+    //best trade of every ticker in a temporary tick store with size tickers x 1000 days:
+    //one pass on a single worker, the same pass on the common fork-join pool, and the per-ticker way
+    //(load each history into a PriceSeries, then run the finder on it)
+    private static void benchmarkMarketScan(BufferedWriter writer, int size) throws IOException {
+        int days = 1000;
+        File file = File.createTempFile("bench", ".bin");
+        File index = File.createTempFile("bench", ".idx");
+        file.delete();
+        index.delete();
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        try (TickStore store = TickStore.open(file, index)) {
+            PriceSeries[] histories = new PriceSeries[size];
+            for (int t = 0; t < size; t++) {
+                histories[t] = generateStockHistory(days);
+            }
+            for (int d = 0; d < days; d++) {
+                for (int t = 0; t < size; t++) {
+                    store.append("Company" + t, "STK" + t, histories[t].date(d), histories[t].high(d),
+                            histories[t].low(d));
+                }
+            }
+
+            for (int i = 0; i < 3; i++) {
+                MarketTradeScan.bestTrades(store, single);
+                MarketTradeScan.bestTrades(store);
+            }
+
+            long startTime = System.nanoTime();
+            MarketTradeScan.bestTrades(store, single);
+            double singleMs = (System.nanoTime() - startTime) / 1000000.0;
+
+            startTime = System.nanoTime();
+            MarketTradeScan.bestTrades(store);
+            double parallelMs = (System.nanoTime() - startTime) / 1000000.0;
+
+            startTime = System.nanoTime();
+            for (int id = 0; id < store.tickerCount(); id++) {
+                PriceSeries history = new PriceSeries(store.name(id), store.ticker(id), store.rows(id));
+                store.forEachRow(id, history::append);
+                BestBuySellFinder.findBestBuySellDays(history);
+            }
+            double perTickerMs = (System.nanoTime() - startTime) / 1000000.0;
+
+            long rows = (long) size * days;
+            writer.write(String.format("MarketScanSingle,%d,%.4f,0\n", rows, singleMs));
+            writer.write(String.format("MarketScanParallel,%d,%.4f,0\n", rows, parallelMs));
+            writer.write(String.format("MarketScanPerTicker,%d,%.4f,0\n", rows, perTickerMs));
+            System.out.printf("  Best trade of %d tickers (%d rows): %.4f ms one worker, %.4f ms on %d workers, %.4f ms per ticker\n",
+                    size, rows, singleMs, parallelMs, ForkJoinPool.commonPool().getParallelism(), perTickerMs);
+        } finally {
+            single.shutdown();
+            file.delete();
+            index.delete();
+        }
+    }
+
+    //online tracker over size * 1000 days: cost of feeding it one bar, and of asking for the best trade
+    //(O(1)) against re-running the batch finder over the whole history
+    private static void benchmarkBestTradeTracker(BufferedWriter writer, int size) throws IOException {
+        int days = size * 1000;
+        PriceSeries history = generateStockHistory(days);
+
+        long startTime = System.nanoTime();
+        BestTradeTracker tracker = new BestTradeTracker(history.getName(), history.getTicker());
+        for (int i = 0; i < days; i++) {
+            tracker.add(history.date(i), history.high(i), history.low(i));
+        }
+        double feedMs = (System.nanoTime() - startTime) / 1000000.0;
+
+        int queries = 1000;
+        startTime = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            tracker.best();
+        }
+        double trackerMs = (System.nanoTime() - startTime) / 1000000.0;
+
+        startTime = System.nanoTime();
+        for (int q = 0; q < 10; q++) {
+            BestBuySellFinder.findBestBuySellDays(history);
+        }
+        double rescanMs = (System.nanoTime() - startTime) / 10 * queries / 1000000.0;
+
+        writer.write(String.format("TrackerFeed,%d,%.4f,0\n", days, feedMs));
+        writer.write(String.format("TrackerQueries,%d,%.4f,0\n", days, trackerMs));
+        writer.write(String.format("TrackerRescan,%d,%.4f,0\n", days, rescanMs));
+        System.out.printf("  Best-trade tracker over %d days: %.1f ns per bar, %d lookups %.4f ms (rescans ~%.4f ms)\n",
+                days, feedMs * 1000000.0 / days, queries, trackerMs, rescanMs);
+    }
+
+    //rows/sec of the old split()-based parser against the byte-level CsvRowParser
+    private static void benchmarkCsvParse(BufferedWriter writer, int size) throws IOException {
+        int rows = size * 100;
+        String[] lines = generateCsvLines(rows);
+        byte[][] raw = new byte[rows][];
+        for (int i = 0; i < rows; i++) {
+            raw[i] = lines[i].getBytes(StandardCharsets.UTF_8);
+        }
+        CsvRowParser parser = new CsvRowParser();
+
+        for (int i = 0; i < 5; i++) {
+            parseWithSplit(lines);
+            parseWithBytes(parser, raw);
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long memBefore = runtime.totalMemory() - runtime.freeMemory();
+        long startTime = System.nanoTime();
+        parseWithSplit(lines);
+        long endTime = System.nanoTime();
+        long memAfter = runtime.totalMemory() - runtime.freeMemory();
+
+        double splitMs = (endTime - startTime) / 1000000.0;
+        long splitKB = (memAfter - memBefore) / 1024;
+
+        System.gc();
+        memBefore = runtime.totalMemory() - runtime.freeMemory();
+        startTime = System.nanoTime();
+        parseWithBytes(parser, raw);
+        endTime = System.nanoTime();
+        memAfter = runtime.totalMemory() - runtime.freeMemory();
+
+        double bytesMs = (endTime - startTime) / 1000000.0;
+        long bytesKB = (memAfter - memBefore) / 1024;
+
+        writer.write(String.format("CsvParseSplit,%d,%.4f,%d\n", rows, splitMs, splitKB));
+        writer.write(String.format("CsvParseBytes,%d,%.4f,%d\n", rows, bytesMs, bytesKB));
+        System.out.printf("  CSV Parse (split): %.4f ms, %d KB, %.0f rows/sec\n",
+                splitMs, splitKB, rows / (splitMs / 1000.0));
+        System.out.printf("  CSV Parse (bytes): %.4f ms, %d KB, %.0f rows/sec\n",
+                bytesMs, bytesKB, rows / (bytesMs / 1000.0));
+    }
+
+    //chained CustomHashMap against the open-addressing OpenHashMap: fill with size * 100 tickers, then look each up
+    private static void benchmarkHashMaps(BufferedWriter writer, int size) throws IOException {
+        int keys = size * 100;
+        String[] tickers = new String[keys];
+        Stock[] stocks = new Stock[keys];
+        for (int i = 0; i < keys; i++) {
+            tickers[i] = "STOCK" + i;
+            stocks[i] = new Stock("Company " + i, tickers[i], BASE_DAY, 100.0, 95.0);
+        }
+
+        for (int i = 0; i < 5; i++) {
+            fillAndProbe(new CustomHashMap<>(), tickers, stocks);
+            fillAndProbe(new OpenHashMap<>(), tickers, stocks);
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long memBefore = runtime.totalMemory() - runtime.freeMemory();
+        long startTime = System.nanoTime();
+        fillAndProbe(new CustomHashMap<>(), tickers, stocks);
+        long endTime = System.nanoTime();
+        long memAfter = runtime.totalMemory() - runtime.freeMemory();
+
+        double chainedMs = (endTime - startTime) / 1000000.0;
+        long chainedKB = (memAfter - memBefore) / 1024;
+
+        System.gc();
+        memBefore = runtime.totalMemory() - runtime.freeMemory();
+        startTime = System.nanoTime();
+        fillAndProbe(new OpenHashMap<>(), tickers, stocks);
+        endTime = System.nanoTime();
+        memAfter = runtime.totalMemory() - runtime.freeMemory();
+
+        double openMs = (endTime - startTime) / 1000000.0;
+        long openKB = (memAfter - memBefore) / 1024;
+
+        writer.write(String.format("HashMapChained,%d,%.4f,%d\n", keys, chainedMs, chainedKB));
+        writer.write(String.format("HashMapOpen,%d,%.4f,%d\n", keys, openMs, openKB));
+        System.out.printf("  HashMap (chained): %.4f ms, %d KB\n", chainedMs, chainedKB);
+        System.out.printf("  HashMap (open): %.4f ms, %d KB\n", openMs, openKB);
+    }
+
+    //slowest single put while growing a map to size * 1000 entries: CustomHashMap rehashes everything
+    //inside one put, OpenHashMap moves a few slots of its old table per operation
+    private static void benchmarkHashMapResize(BufferedWriter writer, int size) throws IOException {
+        int keys = size * 1000;
+        String[] tickers = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            tickers[i] = "STOCK" + i;
+        }
+
+        worstPutNanos(new CustomHashMap<>(), tickers);
+        worstPutNanos(new OpenHashMap<>(), tickers);
+
+        System.gc();
+        double fullMs = worstPutNanos(new CustomHashMap<>(), tickers) / 1000000.0;
+        System.gc();
+        double incrementalMs = worstPutNanos(new OpenHashMap<>(), tickers) / 1000000.0;
+
+        writer.write(String.format("HashMapWorstPutFull,%d,%.4f,0\n", keys, fullMs));
+        writer.write(String.format("HashMapWorstPutIncremental,%d,%.4f,0\n", keys, incrementalMs));
+        System.out.printf("  HashMap worst put (full rehash): %.4f ms\n", fullMs);
+        System.out.printf("  HashMap worst put (incremental): %.4f ms\n", incrementalMs);
+    }
+
+    private static long worstPutNanos(CustomMap<String, Integer> map, String[] tickers) {
+        long worst = 0;
+        Integer value = 1;
+        for (int i = 0; i < tickers.length; i++) {
+            long start = System.nanoTime();
+            map.put(tickers[i], value);
+            long took = System.nanoTime() - start;
+            if (took > worst)
+                worst = took;
+        }
+        return worst;
+    }
+
+    //one thread per core doing 90% lookups and 10% quote updates on a shared map:
+    //CustomHashMap behind one global lock against the striped ConcurrentCustomHashMap
+    private static void benchmarkConcurrentMap(BufferedWriter writer, int size) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int opsPerThread = size * 1000;
+        String[] tickers = new String[size * 10];
+        for (int i = 0; i < tickers.length; i++) {
+            tickers[i] = "STOCK" + i;
+        }
+
+        CustomHashMap<String, Double> locked = new CustomHashMap<>();
+        ConcurrentCustomHashMap<String, Double> striped = new ConcurrentCustomHashMap<>();
+        for (String t : tickers) {
+            locked.put(t, 100.0);
+            striped.put(t, 100.0);
+        }
+
+        runMapThreads(threads, opsPerThread, tickers, locked, null);
+        runMapThreads(threads, opsPerThread, tickers, null, striped);
+
+        double lockedMs = runMapThreads(threads, opsPerThread, tickers, locked, null);
+        double stripedMs = runMapThreads(threads, opsPerThread, tickers, null, striped);
+
+        long ops = (long) threads * opsPerThread;
+        writer.write(String.format("ConcurrentMapGlobalLock,%d,%.4f,0\n", ops, lockedMs));
+        writer.write(String.format("ConcurrentMapStriped,%d,%.4f,0\n", ops, stripedMs));
+        System.out.printf("  Shared map, %d threads (global lock): %.4f ms\n", threads, lockedMs);
+        System.out.printf("  Shared map, %d threads (striped): %.4f ms\n", threads, stripedMs);
+    }
+
+    private static double runMapThreads(int threads, int opsPerThread, String[] tickers,
+            CustomHashMap<String, Double> locked, ConcurrentCustomHashMap<String, Double> striped) {
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            workers[t] = new Thread(() -> {
+                int x = seed * 7919 + 1;
+                for (int i = 0; i < opsPerThread; i++) {
+                    x = x * 1103515245 + 12345;
+                    String ticker = tickers[(x >>> 8) % tickers.length];
+                    boolean update = ((x >>> 4) & 15) < 2;
+                    if (locked != null) {
+                        synchronized (locked) {
+                            if (update)
+                                locked.put(ticker, locked.get(ticker) + 0.01);
+                            else
+                                locked.get(ticker);
+                        }
+                    } else if (update) {
+                        striped.merge(ticker, 0.01, Double::sum);
+                    } else {
+                        striped.get(ticker);
+                    }
+                }
+            });
+        }
+
+        long startTime = System.nanoTime();
+        for (Thread w : workers)
+            w.start();
+        try {
+            for (Thread w : workers)
+                w.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return (System.nanoTime() - startTime) / 1000000.0;
+    }
+
+    //best buy/sell scan over size * 1000 bars: heap PriceSeries, an OffHeapPriceSeries in direct memory
+    //and one mapped from a tick store, all through the PriceBars interface
+    private static void benchmarkSeriesScan(BufferedWriter writer, int size) throws IOException {
+        int bars = size * 1000;
+        PriceSeries heap = generateStockHistory(bars);
+        File file = File.createTempFile("bench", ".bin");
+        File index = File.createTempFile("bench", ".idx");
+        file.delete();
+        index.delete();
+
+        try (TickStore store = TickStore.open(file, index);
+             OffHeapPriceSeries offHeap = OffHeapPriceSeries.allocate("TestStock", "TEST", bars)) {
+            for (int i = 0; i < bars; i++) {
+                offHeap.append(heap.date(i), heap.high(i), heap.low(i));
+                store.append("TestStock", "TEST", heap.date(i), heap.high(i), heap.low(i));
+            }
+            try (OffHeapPriceSeries mapped = store.mapHistory(0)) {
+                for (int i = 0; i < 10; i++) {
+                    BestBuySellFinder.findBestBuySellDays(heap);
+                    BestBuySellFinder.findBestBuySellDays(offHeap);
+                    BestBuySellFinder.findBestBuySellDays(mapped);
+                }
+
+                double heapMs = timeScan(heap);
+                double offHeapMs = timeScan(offHeap);
+                double mappedMs = timeScan(mapped);
+
+                long scanned = bars * 10L;
+                writer.write(String.format("SeriesScanHeap,%d,%.4f,0\n", bars, heapMs));
+                writer.write(String.format("SeriesScanOffHeap,%d,%.4f,0\n", bars, offHeapMs));
+                writer.write(String.format("SeriesScanMapped,%d,%.4f,0\n", bars, mappedMs));
+                System.out.printf("  Series scan (heap): %.4f ms, %.0f bars/sec\n", heapMs, scanned / (heapMs / 1000.0));
+                System.out.printf("  Series scan (off-heap): %.4f ms, %.0f bars/sec\n", offHeapMs, scanned / (offHeapMs / 1000.0));
+                System.out.printf("  Series scan (mapped from store): %.4f ms, %.0f bars/sec\n", mappedMs, scanned / (mappedMs / 1000.0));
+            }
+        } finally {
+            file.delete();
+            index.delete();
+        }
+    }
+
+    //10 best buy/sell scans, in ms
+    private static double timeScan(PriceBars history) {
+        long startTime = System.nanoTime();
+        for (int i = 0; i < 10; i++)
+            BestBuySellFinder.findBestBuySellDays(history);
+        return (System.nanoTime() - startTime) / 1000000.0;
+    }
+
+    private static int fillAndProbe(CustomMap<String, Stock> map, String[] tickers, Stock[] stocks) {
+        for (int i = 0; i < tickers.length; i++) {
+            map.put(tickers[i], stocks[i]);
+        }
+        int found = 0;
+        for (int i = 0; i < tickers.length; i++) {
+            if (map.get(tickers[i]) != null)
+                found++;
+        }
+        return found;
+    }
+
+    //the parser DataManager used before CsvRowParser
+    private static double parseWithSplit(String[] lines) {
+        double checksum = 0;
+        for (String line : lines) {
+            String[] p = line.split(",");
+            if (p.length < 5)
+                continue;
+            Stock s = new Stock(p[0].trim(), p[1].trim(), MarketDate.parse(p[2]),
+                    Double.parseDouble(p[3].trim()), Double.parseDouble(p[4].trim()));
+            checksum += s.getHighPrice();
+        }
+        return checksum;
+    }
+
+    private static double parseWithBytes(CsvRowParser parser, byte[][] raw) {
+        double checksum = 0;
+        for (byte[] line : raw) {
+            if (parser.parse(line, 0, line.length)) {
+                checksum += parser.getHighPrice();
+            }
+        }
+        return checksum;
+    }
+
+    private static String[] generateCsvLines(int rows) {
+        String[] lines = new String[rows];
+        double high = 100.0;
+        double low = 95.0;
+        for (int i = 0; i < rows; i++) {
+            lines[i] = String.format(Locale.ROOT, "Company %d,STK%d,%02d-%02d-%04d,%.2f,%.2f",
+                    i % 50, i % 50, 1 + i % 28, 1 + (i / 28) % 12, 2000 + i / 336, high, low);
+            double[] newPrices = PriceSimulator.simulateNextDayPrices(high, low);
+            high = newPrices[0];
+            low = newPrices[1];
+        }
+        return lines;
+    }
+
+    private static CustomMap<String, Stock> generateStockData(int size) {
+        CustomMap<String, Stock> map = new OpenHashMap<>();
         for (int i = 0; i < size; i++) {
             String ticker = "STOCK" + i;
-            Stock stock = new Stock("Company " + i, ticker, "01-01-2025",
+            Stock stock = new Stock("Company " + i, ticker, BASE_DAY,
                     100.0 + i, 95.0 + i);
             map.put(ticker, stock);
         }
         return map;
     }
 
-    private static CustomArrayList<Stock> generateStockHistory(int size) {
-        CustomArrayList<Stock> history = new CustomArrayList<>();
+    private static PriceSeries generateStockHistory(int size) {
+        PriceSeries history = new PriceSeries("TestStock", "TEST", size);
         double high = 100.0;
         double low = 95.0;
 
         for (int i = 0; i < size; i++) {
-            history.add(new Stock("TestStock", "TEST", "Day" + i, high, low));
+            history.append(BASE_DAY + i, high, low);
             double[] newPrices = PriceSimulator.simulateNextDayPrices(high, low);
             high = newPrices[0];
             low = newPrices[1];
@@ -151,20 +738,20 @@ public class BenchmarkRunner {
     }
 
     private static CustomArrayList<Stock> generateStockList(int size) {
-        CustomArrayList<Stock> list = new CustomArrayList<>();
+        CustomArrayList<Stock> list = new CustomArrayList<>(size);
         for (int i = 0; i < size; i++) {
             double price = Math.random() * 500 + 50;
-            list.add(new Stock("Company" + i, "STK" + i, "01-01-2025",
+            list.add(new Stock("Company" + i, "STK" + i, BASE_DAY,
                     price, price * 0.95));
         }
         return list;
     }
 
     private static CustomArrayList<Stock> copyStockList(CustomArrayList<Stock> original) {
-        CustomArrayList<Stock> copy = new CustomArrayList<>();
+        CustomArrayList<Stock> copy = new CustomArrayList<>(original.size());
         for (int i = 0; i < original.size(); i++) {
             Stock s = original.get(i);
-            copy.add(new Stock(s.getName(), s.getTicker(), s.getDate(),
+            copy.add(new Stock(s.getName(), s.getTicker(), s.getEpochDay(),
                     s.getHighPrice(), s.getLowPrice()));
         }
         return copy;
@@ -0,0 +1,238 @@
+package stockmarket.datastructures;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
+
+//thread-safe hash map with the CustomMap API plus atomic compute/merge
+//keys are spread over independent segments (lock striping): writers lock only their segment,
+//readers take no lock at all. Nodes have final keys and next links and a volatile value,
+//so a reader walking a chain always sees a consistent list while a writer replaces it
+public class ConcurrentCustomHashMap<K, V> implements CustomMap<K, V> {
+    private static final int DEFAULT_SEGMENTS = 16;
+    private static final int SEGMENT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final Segment<K, V>[] segments;
+    private final int segmentMask;
+    private final int segmentShift;
+
+    public ConcurrentCustomHashMap() {
+        this(DEFAULT_SEGMENTS);
+    }
+
+    //concurrencyLevel is rounded up to a power of two and fixes the number of stripes
+    @SuppressWarnings("unchecked")
+    public ConcurrentCustomHashMap(int concurrencyLevel) {
+        int count = 1;
+        int bits = 0;
+        while (count < concurrencyLevel) {
+            count <<= 1;
+            bits++;
+        }
+        this.segments = (Segment<K, V>[]) new Segment<?, ?>[count];
+        this.segmentMask = count - 1;
+        this.segmentShift = 32 - bits;
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>();
+        }
+    }
+
+    static final class Node<K, V> {
+        final K key;
+        final int hash;
+        volatile V value;
+        final Node<K, V> next;
+
+        Node(K key, int hash, V value, Node<K, V> next) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    private static int hash(Object key) {
+        if (key == null)
+            throw new IllegalArgumentException("ConcurrentCustomHashMap does not support null keys");
+        return Hashing.mix(key);
+    }
+
+    //top bits pick the segment, low bits pick the bucket inside it
+    private Segment<K, V> segmentFor(int h) {
+        return segments[segmentShift == 32 ? 0 : (h >>> segmentShift) & segmentMask];
+    }
+
+    // --------------------------------------------------------
+    // MAP API
+    // --------------------------------------------------------
+    public V get(K key) {
+        int h = hash(key);
+        return segmentFor(h).get(key, h);
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    public void put(K key, V value) {
+        if (value == null)
+            throw new IllegalArgumentException("ConcurrentCustomHashMap does not support null values");
+        int h = hash(key);
+        segmentFor(h).update(key, h, (k, old) -> value);
+    }
+
+    //stores value only when key is absent; returns the value that was already there, or null
+    public V putIfAbsent(K key, V value) {
+        if (value == null)
+            throw new IllegalArgumentException("ConcurrentCustomHashMap does not support null values");
+        int h = hash(key);
+        Segment<K, V> segment = segmentFor(h);
+        V existing = segment.get(key, h);
+        if (existing != null)
+            return existing;
+
+        @SuppressWarnings("unchecked")
+        V[] seen = (V[]) new Object[1];
+        segment.update(key, h, (k, old) -> {
+            seen[0] = old;
+            return old != null ? old : value;
+        });
+        return seen[0];
+    }
+
+    public V remove(K key) {
+        int h = hash(key);
+        @SuppressWarnings("unchecked")
+        V[] seen = (V[]) new Object[1];
+        segmentFor(h).update(key, h, (k, old) -> {
+            seen[0] = old;
+            return null;
+        });
+        return seen[0];
+    }
+
+    //atomically replaces the value of key with fn(key, old); a null result removes the key
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> fn) {
+        int h = hash(key);
+        return segmentFor(h).update(key, h, fn);
+    }
+
+    //atomically stores value when key is absent, otherwise fn(old, value); a null result removes the key
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> fn) {
+        if (value == null)
+            throw new IllegalArgumentException("ConcurrentCustomHashMap does not support null values");
+        int h = hash(key);
+        return segmentFor(h).update(key, h, (k, old) -> old == null ? value : fn.apply(old, value));
+    }
+
+    //sum of the segment counts; exact only when no writer is running
+    public int size() {
+        int total = 0;
+        for (Segment<K, V> segment : segments) {
+            total += segment.count;
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    //weakly consistent snapshots: every key present for the whole call is included
+    public CustomArrayList<K> keySet() {
+        CustomArrayList<K> keys = new CustomArrayList<>(size());
+        for (Segment<K, V> segment : segments) {
+            AtomicReferenceArray<Node<K, V>> tab = segment.table;
+            for (int i = 0; i < tab.length(); i++) {
+                for (Node<K, V> n = tab.get(i); n != null; n = n.next) {
+                    if (n.value != null)
+                        keys.add(n.key);
+                }
+            }
+        }
+        return keys;
+    }
+
+    public CustomArrayList<V> values() {
+        CustomArrayList<V> vals = new CustomArrayList<>(size());
+        for (Segment<K, V> segment : segments) {
+            AtomicReferenceArray<Node<K, V>> tab = segment.table;
+            for (int i = 0; i < tab.length(); i++) {
+                for (Node<K, V> n = tab.get(i); n != null; n = n.next) {
+                    V v = n.value;
+                    if (v != null)
+                        vals.add(v);
+                }
+            }
+        }
+        return vals;
+    }
+
+    // --------------------------------------------------------
+    // SEGMENT (ONE STRIPE, GUARDED BY ITS OWN MONITOR FOR WRITES)
+    // --------------------------------------------------------
+    static final class Segment<K, V> {
+        volatile AtomicReferenceArray<Node<K, V>> table = new AtomicReferenceArray<>(SEGMENT_CAPACITY);
+        volatile int count;
+
+        V get(K key, int h) {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            for (Node<K, V> n = tab.get(h & (tab.length() - 1)); n != null; n = n.next) {
+                if (n.hash == h && n.key.equals(key))
+                    return n.value;
+            }
+            return null;
+        }
+
+        //applies fn to the current value under the segment lock and stores the result
+        //(null result = remove); returns the new value
+        synchronized V update(K key, int h, BiFunction<? super K, ? super V, ? extends V> fn) {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            int index = h & (tab.length() - 1);
+            Node<K, V> first = tab.get(index);
+
+            Node<K, V> found = first;
+            while (found != null && !(found.hash == h && found.key.equals(key))) {
+                found = found.next;
+            }
+
+            V old = found == null ? null : found.value;
+            V updated = fn.apply(key, old);
+
+            if (found != null && updated != null) {
+                found.value = updated;
+            } else if (found == null && updated != null) {
+                tab.set(index, new Node<>(key, h, updated, first));
+                count = count + 1;
+                if (count > tab.length() * LOAD_FACTOR) {
+                    resize();
+                }
+            } else if (found != null) {
+                // next links are final: copy the nodes in front of the removed one
+                Node<K, V> rebuilt = found.next;
+                for (Node<K, V> n = first; n != found; n = n.next) {
+                    rebuilt = new Node<>(n.key, n.hash, n.value, rebuilt);
+                }
+                tab.set(index, rebuilt);
+                count = count - 1;
+            }
+            return updated;
+        }
+
+        //builds a doubled table and publishes it with one volatile write;
+        //readers still on the old table see its unchanged chains
+        private void resize() {
+            AtomicReferenceArray<Node<K, V>> oldTab = table;
+            int capacity = oldTab.length() * 2;
+            AtomicReferenceArray<Node<K, V>> newTab = new AtomicReferenceArray<>(capacity);
+
+            for (int i = 0; i < oldTab.length(); i++) {
+                for (Node<K, V> n = oldTab.get(i); n != null; n = n.next) {
+                    int index = n.hash & (capacity - 1);
+                    newTab.set(index, new Node<>(n.key, n.hash, n.value, newTab.get(index)));
+                }
+            }
+            table = newTab;
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package stockmarket.datastructures;
 
-public class CustomArrayList<T> {
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+public class CustomArrayList<T> implements Iterable<T> {
     private Object[] elements;
     private int size;
     private static final int DEFAULT_CAPACITY = 10;
+    // bumped by every structural change, so iterators can fail fast
+    private int modCount;
 
     public CustomArrayList() {
         elements = new Object[DEFAULT_CAPACITY];
@@ -11,13 +19,24 @@ public class CustomArrayList<T> {
     }
 
     public CustomArrayList(int capacity) {
-        elements = new Object[capacity];
+        elements = new Object[Math.max(capacity, 1)];
         size = 0;
     }
 
     public void add(T element) {
-        ensureCapacity();
+        if (size == elements.length) {
+            ensureCapacity(size + 1);
+        }
         elements[size++] = element;
+        modCount++;
+    }
+
+    //appends every element of other with one bulk copy
+    public void addAll(CustomArrayList<? extends T> other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.elements, 0, elements, size, other.size);
+        size += other.size;
+        modCount++;
     }
 
     @SuppressWarnings("unchecked")
@@ -43,13 +62,44 @@ public class CustomArrayList<T> {
         @SuppressWarnings("unchecked")
         T removedElement = (T) elements[index];
 
-        for (int i = index; i < size - 1; i++) {
-            elements[i] = elements[i + 1];
-        }
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
         elements[--size] = null;
+        modCount++;
         return removedElement;
     }
 
+    //removes every element matching filter; true if any was removed
+    //the filter sees every element before anything moves, so if it throws the list is left unchanged
+    @SuppressWarnings("unchecked")
+    public boolean removeIf(Predicate<? super T> filter) {
+        int expected = modCount;
+        // bit i set = element i is removed
+        long[] removed = null;
+        for (int i = 0; i < size; i++) {
+            if (filter.test((T) elements[i])) {
+                if (removed == null)
+                    removed = new long[((size - 1) >> 6) + 1];
+                removed[i >> 6] |= 1L << i;
+            }
+            if (modCount != expected)
+                throw new ConcurrentModificationException();
+        }
+
+        if (removed == null)
+            return false;
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if ((removed[i >> 6] & (1L << i)) == 0)
+                elements[kept++] = elements[i];
+        }
+        for (int i = kept; i < size; i++) {
+            elements[i] = null;
+        }
+        size = kept;
+        modCount++;
+        return true;
+    }
+
     public int size() {
         return size;
     }
@@ -63,15 +113,15 @@ public class CustomArrayList<T> {
             elements[i] = null;
         }
         size = 0;
+        modCount++;
     }
 
-    private void ensureCapacity() {
-        if (size == elements.length) {
-            int newCapacity = elements.length * 2;
+    //grows the backing array once to hold at least minCapacity elements
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > elements.length) {
+            int newCapacity = Math.max(minCapacity, elements.length * 2);
             Object[] newElements = new Object[newCapacity];
-            for (int i = 0; i < size; i++) {
-                newElements[i] = elements[i];
-            }
+            System.arraycopy(elements, 0, newElements, 0, size);
             elements = newElements;
         }
     }
@@ -84,4 +134,76 @@ public class CustomArrayList<T> {
         }
         return false;
     }
-}
\ No newline at end of file
+
+    public Object[] toArray() {
+        Object[] copy = new Object[size];
+        System.arraycopy(elements, 0, copy, 0, size);
+        return copy;
+    }
+
+    //copies into target when it is large enough, otherwise into a new array of the same type
+    @SuppressWarnings("unchecked")
+    public <E> E[] toArray(E[] target) {
+        if (target.length < size) {
+            target = (E[]) java.lang.reflect.Array.newInstance(target.getClass().getComponentType(), size);
+        }
+        System.arraycopy(elements, 0, target, 0, size);
+        if (target.length > size) {
+            target[size] = null;
+        }
+        return target;
+    }
+
+    // --------------------------------------------------------
+    // ITERATION (FAIL-FAST ON CONCURRENT STRUCTURAL CHANGES)
+    // --------------------------------------------------------
+    @SuppressWarnings("unchecked")
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        int expected = modCount;
+        for (int i = 0; i < size && modCount == expected; i++) {
+            action.accept((T) elements[i]);
+        }
+        if (modCount != expected)
+            throw new ConcurrentModificationException();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Itr();
+    }
+
+    private class Itr implements Iterator<T> {
+        private int cursor;
+        private int lastReturned = -1;
+        private int expected = modCount;
+
+        public boolean hasNext() {
+            return cursor < size;
+        }
+
+        @SuppressWarnings("unchecked")
+        public T next() {
+            checkForChanges();
+            if (cursor >= size)
+                throw new NoSuchElementException();
+            lastReturned = cursor;
+            return (T) elements[cursor++];
+        }
+
+        public void remove() {
+            if (lastReturned < 0)
+                throw new IllegalStateException();
+            checkForChanges();
+            CustomArrayList.this.remove(lastReturned);
+            cursor = lastReturned;
+            lastReturned = -1;
+            expected = modCount;
+        }
+
+        private void checkForChanges() {
+            if (modCount != expected)
+                throw new ConcurrentModificationException();
+        }
+    }
+}
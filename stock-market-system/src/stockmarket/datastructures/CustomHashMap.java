@@ -1,6 +1,6 @@
 package stockmarket.datastructures;
 
-public class CustomHashMap<K, V> {
+public class CustomHashMap<K, V> implements CustomMap<K, V> {
     private static final int DEFAULT_CAPACITY = 16;
     private static final float LOAD_FACTOR = 0.75f;
 
@@ -104,7 +104,7 @@ public class CustomHashMap<K, V> {
     }
 
     public CustomArrayList<K> keySet() {
-        CustomArrayList<K> keys = new CustomArrayList<>();
+        CustomArrayList<K> keys = new CustomArrayList<>(size);
         for (int i = 0; i < capacity; i++) {
             Entry<K, V> current = table[i];
             while (current != null) {
@@ -116,7 +116,7 @@ public class CustomHashMap<K, V> {
     }
 
     public CustomArrayList<V> values() {
-        CustomArrayList<V> vals = new CustomArrayList<>();
+        CustomArrayList<V> vals = new CustomArrayList<>(size);
         for (int i = 0; i < capacity; i++) {
             Entry<K, V> current = table[i];
             while (current != null) {
@@ -143,4 +143,4 @@ public class CustomHashMap<K, V> {
             }
         }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package stockmarket.datastructures;
+
+//common API of the mutable custom hash maps, so callers can take either implementation
+public interface CustomMap<K, V> extends MapView<K, V> {
+    void put(K key, V value);
+
+    V remove(K key);
+}
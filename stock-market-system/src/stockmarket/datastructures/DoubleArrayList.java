@@ -0,0 +1,93 @@
+package stockmarket.datastructures;
+
+import java.util.function.DoubleConsumer;
+
+//growable list of primitive doubles, the unboxed sibling of CustomArrayList
+public class DoubleArrayList {
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private double[] elements;
+    private int size;
+
+    public DoubleArrayList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DoubleArrayList(int capacity) {
+        elements = new double[Math.max(capacity, 1)];
+    }
+
+    public void add(double value) {
+        if (size == elements.length) {
+            ensureCapacity(size + 1);
+        }
+        elements[size++] = value;
+    }
+
+    public void addAll(DoubleArrayList other) {
+        addAll(other.elements, 0, other.size);
+    }
+
+    //appends values[from, to) with one bulk copy
+    public void addAll(double[] values, int from, int to) {
+        ensureCapacity(size + (to - from));
+        System.arraycopy(values, from, elements, size, to - from);
+        size += to - from;
+    }
+
+    public double get(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    public void set(int index, double value) {
+        checkIndex(index);
+        elements[index] = value;
+    }
+
+    public double removeAt(int index) {
+        checkIndex(index);
+        double removed = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > elements.length) {
+            double[] grown = new double[Math.max(minCapacity, elements.length * 2)];
+            System.arraycopy(elements, 0, grown, 0, size);
+            elements = grown;
+        }
+    }
+
+    public double[] toArray() {
+        double[] copy = new double[size];
+        System.arraycopy(elements, 0, copy, 0, size);
+        return copy;
+    }
+
+    public void forEach(DoubleConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(elements[i]);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
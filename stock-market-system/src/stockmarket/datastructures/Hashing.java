@@ -0,0 +1,15 @@
+package stockmarket.datastructures;
+
+//hash spreading shared by the hash maps and the price index
+final class Hashing {
+    private Hashing() {
+    }
+
+    //golden-ratio multiply, then fold the high bits into the low ones. Tables that mask the hash
+    //(or walk it 5 bits at a time) would otherwise cluster badly on near-sequential hash codes
+    //such as "STOCK1", "STOCK2", ...
+    static int mix(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,93 @@
+package stockmarket.datastructures;
+
+import java.util.function.IntConsumer;
+
+//growable list of primitive ints, the unboxed sibling of CustomArrayList
+public class IntArrayList {
+    private static final int DEFAULT_CAPACITY = 10;
+
+    private int[] elements;
+    private int size;
+
+    public IntArrayList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntArrayList(int capacity) {
+        elements = new int[Math.max(capacity, 1)];
+    }
+
+    public void add(int value) {
+        if (size == elements.length) {
+            ensureCapacity(size + 1);
+        }
+        elements[size++] = value;
+    }
+
+    public void addAll(IntArrayList other) {
+        addAll(other.elements, 0, other.size);
+    }
+
+    //appends values[from, to) with one bulk copy
+    public void addAll(int[] values, int from, int to) {
+        ensureCapacity(size + (to - from));
+        System.arraycopy(values, from, elements, size, to - from);
+        size += to - from;
+    }
+
+    public int get(int index) {
+        checkIndex(index);
+        return elements[index];
+    }
+
+    public void set(int index, int value) {
+        checkIndex(index);
+        elements[index] = value;
+    }
+
+    public int removeAt(int index) {
+        checkIndex(index);
+        int removed = elements[index];
+        System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        size--;
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > elements.length) {
+            int[] grown = new int[Math.max(minCapacity, elements.length * 2)];
+            System.arraycopy(elements, 0, grown, 0, size);
+            elements = grown;
+        }
+    }
+
+    public int[] toArray() {
+        int[] copy = new int[size];
+        System.arraycopy(elements, 0, copy, 0, size);
+        return copy;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(elements[i]);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
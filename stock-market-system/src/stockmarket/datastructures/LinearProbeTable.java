@@ -0,0 +1,224 @@
+package stockmarket.datastructures;
+
+//key side of an open-addressing hash table, shared by OpenHashMap, ObjectIntMap, ObjectDoubleMap and OpenHashSet
+//keys sit in one array, slots are found with a power-of-two mask and linear probing, and removal shifts
+//later entries back instead of leaving tombstones. Subclasses keep their values in a parallel array
+//and only move, clear and reallocate them
+//growing is incremental: the old and the doubled table are kept side by side and every put/get/remove
+//moves a few old slots across, so no single operation pays for rehashing the whole map.
+//lookups migrate, so even reads must not run concurrently with any other access
+abstract class LinearProbeTable<K> {
+    static final int DEFAULT_CAPACITY = 16;
+    static final float LOAD_FACTOR = 0.75f;
+    // old slots moved per operation; the old table is empty long before the new one reaches its load factor
+    static final int MIGRATE_SLOTS = 8;
+    // marks an old slot whose entry already moved, so old probe chains running through it stay unbroken
+    private static final Object MOVED = new Object();
+
+    Object[] keys;
+    int size;
+    int mask;
+
+    // previous table while a resize is in progress (null otherwise); slots below `migrated` are drained
+    private Object[] oldKeys;
+    private int oldMask;
+    private int migrated;
+
+    //sized so that expected entries fit without a resize
+    LinearProbeTable(int expected) {
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity * LOAD_FACTOR < expected) {
+            capacity <<= 1;
+        }
+        keys = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    LinearProbeTable(LinearProbeTable<K> other) {
+        keys = other.keys.clone();
+        size = other.size;
+        mask = other.mask;
+        if (other.oldKeys != null) {
+            oldKeys = other.oldKeys.clone();
+            oldMask = other.oldMask;
+            migrated = other.migrated;
+        }
+    }
+
+    //value moved from slot `from` to slot `to` of the current table by a deletion
+    abstract void moveValue(int from, int to);
+
+    //value of an emptied slot dropped (so the slot holds no stale reference)
+    abstract void clearValue(int slot);
+
+    //a resize starts: the current values become the old ones and a value array of `capacity` is allocated
+    abstract void growValues(int capacity);
+
+    //value of old slot `from` moved to slot `to` of the current table
+    abstract void migrateValue(int from, int to);
+
+    //the resize is finished, the old value array can go
+    abstract void dropOldValues();
+
+    private int slotFor(Object key) {
+        return Hashing.mix(key) & mask;
+    }
+
+    //slot of the current table holding key, or -1 when absent; a key still in the old table is moved first
+    int find(Object key) {
+        migrateStep();
+        int i = slotFor(key);
+        while (keys[i] != null) {
+            if (keys[i].equals(key))
+                return i;
+            i = (i + 1) & mask;
+        }
+        if (oldKeys == null)
+            return -1;
+
+        int j = findOld(key);
+        return j < 0 ? -1 : moveOld(j, i);
+    }
+
+    //slot holding key, or the empty slot where it belongs (check keys[slot] == null to tell them apart)
+    int probe(Object key) {
+        migrateStep();
+        int i = slotFor(key);
+        while (keys[i] != null && !keys[i].equals(key)) {
+            i = (i + 1) & mask;
+        }
+        if (keys[i] == null && oldKeys != null) {
+            int j = findOld(key);
+            if (j >= 0)
+                moveOld(j, i);
+        }
+        return i;
+    }
+
+    //to be called after a new key was stored into an empty slot; may start a resize, so slot indexes go stale
+    void keyAdded() {
+        size++;
+        if (size > keys.length * LOAD_FACTOR) {
+            // only reachable when a resize is still draining; finish it before starting the next one
+            if (oldKeys != null)
+                migrate(oldKeys.length);
+            startResize();
+        }
+    }
+
+    //backward-shift deletion keeps every probe chain unbroken without tombstones
+    void deleteSlot(int hole) {
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            if (keys[i] == null)
+                break;
+
+            int home = slotFor(keys[i]);
+            // entry at i may move into the hole only if the hole lies on its probe path
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                moveValue(i, hole);
+                hole = i;
+            }
+        }
+        keys[hole] = null;
+        clearValue(hole);
+        size--;
+    }
+
+    // --------------------------------------------------------
+    // INCREMENTAL RESIZE
+    // --------------------------------------------------------
+
+    //only allocates the doubled table, the entries follow a few slots per operation
+    private void startResize() {
+        oldKeys = keys;
+        oldMask = mask;
+        migrated = 0;
+        keys = new Object[oldKeys.length * 2];
+        mask = keys.length - 1;
+        growValues(keys.length);
+    }
+
+    private void migrateStep() {
+        if (oldKeys != null)
+            migrate(MIGRATE_SLOTS);
+    }
+
+    //moves the next `slots` old slots into the current table
+    private void migrate(int slots) {
+        int end = Math.min(oldKeys.length, migrated + slots);
+        for (; migrated < end; migrated++) {
+            Object key = oldKeys[migrated];
+            if (key == null || key == MOVED)
+                continue;
+
+            int i = slotFor(key);
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            migrateValue(migrated, i);
+            oldKeys[migrated] = MOVED;
+        }
+        if (migrated == oldKeys.length) {
+            oldKeys = null;
+            dropOldValues();
+        }
+    }
+
+    //old slot holding key, or -1 (MOVED never equals a key, so drained slots are simply probed past)
+    private int findOld(Object key) {
+        int j = Hashing.mix(key) & oldMask;
+        while (oldKeys[j] != null) {
+            if (oldKeys[j].equals(key))
+                return j;
+            j = (j + 1) & oldMask;
+        }
+        return -1;
+    }
+
+    //moves the entry of old slot j into the empty current slot i and returns i
+    private int moveOld(int j, int i) {
+        keys[i] = oldKeys[j];
+        migrateValue(j, i);
+        oldKeys[j] = MOVED;
+        return i;
+    }
+
+    // --------------------------------------------------------
+    // SLOTS OF BOTH TABLES: [0, keys.length) CURRENT, THE REST OLD
+    // --------------------------------------------------------
+    int slotCount() {
+        return oldKeys == null ? keys.length : keys.length + oldKeys.length;
+    }
+
+    //key in slot i, or null when the slot is empty
+    Object keyInSlot(int i) {
+        if (i < keys.length)
+            return keys[i];
+        Object key = oldKeys[i - keys.length];
+        return key == MOVED ? null : key;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public CustomArrayList<K> keySet() {
+        CustomArrayList<K> result = new CustomArrayList<>(size);
+        int slots = slotCount();
+        for (int i = 0; i < slots; i++) {
+            Object key = keyInSlot(i);
+            if (key != null)
+                result.add((K) key);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,26 @@
+package stockmarket.datastructures;
+
+import java.util.function.Consumer;
+
+//read-only side of a map: everything a reader needs, nothing that changes the map
+//implemented by the mutable maps (through CustomMap) and by the immutable PersistentHashMap
+public interface MapView<K, V> {
+    V get(K key);
+
+    boolean containsKey(K key);
+
+    int size();
+
+    boolean isEmpty();
+
+    CustomArrayList<K> keySet();
+
+    CustomArrayList<V> values();
+
+    //visits every value; maps that can walk their storage directly override this to skip the copy
+    default void forEachValue(Consumer<? super V> action) {
+        for (V value : values()) {
+            action.accept(value);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package stockmarket.datastructures;
+
+//hash map from object keys to primitive int values (no Integer boxing)
+//the keys are a LinearProbeTable, the values a parallel int array;
+//slot accessors let callers read and update a value with a single lookup
+public class ObjectIntMap<K> extends LinearProbeTable<K> {
+    private int[] values;
+    // values of the old table while a resize is in progress
+    private int[] oldValues;
+
+    public ObjectIntMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ObjectIntMap(int expected) {
+        super(expected);
+        values = new int[keys.length];
+    }
+
+    private ObjectIntMap(ObjectIntMap<K> other) {
+        super(other);
+        values = other.values.clone();
+        if (other.oldValues != null)
+            oldValues = other.oldValues.clone();
+    }
+
+    //independent copy with the same slots, O(capacity)
+    public ObjectIntMap<K> copy() {
+        return new ObjectIntMap<>(this);
+    }
+
+    //slot holding key, or -1 when absent (keys must not be null)
+    public int indexOf(K key) {
+        return find(key);
+    }
+
+    public int get(K key) {
+        return get(key, 0);
+    }
+
+    public int get(K key, int missing) {
+        int i = find(key);
+        return i < 0 ? missing : values[i];
+    }
+
+    public boolean containsKey(K key) {
+        return find(key) >= 0;
+    }
+
+    public void put(K key, int value) {
+        int i = probe(key);
+        values[i] = value;
+        if (keys[i] == null) {
+            keys[i] = key;
+            keyAdded();
+        }
+    }
+
+    //adds delta to the value of key (0 when absent) and returns the new value
+    public int addTo(K key, int delta) {
+        int i = probe(key);
+        if (keys[i] != null) {
+            values[i] += delta;
+            return values[i];
+        }
+        keys[i] = key;
+        values[i] = delta;
+        keyAdded();
+        return delta;
+    }
+
+    //removes key and returns its value (0 when absent)
+    public int remove(K key) {
+        int i = find(key);
+        if (i < 0)
+            return 0;
+
+        int removed = values[i];
+        deleteSlot(i);
+        return removed;
+    }
+
+    // --------------------------------------------------------
+    // SLOT ACCESS (ITERATE WITH 0 <= i < capacity(), SKIP EMPTY SLOTS)
+    // --------------------------------------------------------
+
+    //slots of the current table, plus those of the old one while a resize is in progress
+    public int capacity() {
+        return slotCount();
+    }
+
+    //key stored in slot i, or null for an empty slot
+    @SuppressWarnings("unchecked")
+    public K keyAt(int i) {
+        return (K) keyInSlot(i);
+    }
+
+    public int valueAt(int i) {
+        return i < values.length ? values[i] : oldValues[i - values.length];
+    }
+
+    public void setValueAt(int i, int value) {
+        if (i < values.length)
+            values[i] = value;
+        else
+            oldValues[i - values.length] = value;
+    }
+
+    void moveValue(int from, int to) {
+        values[to] = values[from];
+    }
+
+    void clearValue(int slot) {
+        values[slot] = 0;
+    }
+
+    void growValues(int capacity) {
+        oldValues = values;
+        values = new int[capacity];
+    }
+
+    void migrateValue(int from, int to) {
+        values[to] = oldValues[from];
+    }
+
+    void dropOldValues() {
+        oldValues = null;
+    }
+}
@@ -0,0 +1,185 @@
+package stockmarket.datastructures;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+//price history of one ticker kept outside the Java heap
+//the rows live in chunks of three columns (dates, highs, lows). allocate() builds a growable series with one
+//chunk in direct ByteBuffers; TickStore.mapHistory() wraps the ticker's column blocks of the memory-mapped
+//store in place, one chunk per block. Either way large histories add nothing for the garbage collector
+//to trace or copy.
+//close() only drops the series' references: direct chunks are freed by the garbage collector once
+//unreachable, mapped columns belong to the store. Any access after close() throws IllegalStateException
+public class OffHeapPriceSeries implements PriceBars, Closeable {
+    private static final int DEFAULT_CAPACITY = 16;
+    // direct columns use the native byte order, so reads need no byte swap
+    private static final ByteOrder ORDER = ByteOrder.nativeOrder();
+
+    private final String name;
+    private final String ticker;
+    private final boolean mapped;
+    // chunk c holds rows [firstRow[c], firstRow[c + 1]), each chunk's columns start at its own row 0
+    private ByteBuffer[] dates;
+    private ByteBuffer[] highs;
+    private ByteBuffer[] lows;
+    private int[] firstRow;
+    private int chunks;
+    private int capacity;
+    private int size;
+    // chunk of the previous access, so a sequential scan never searches
+    private int lastChunk;
+    private boolean closed;
+
+    private OffHeapPriceSeries(String name, String ticker, boolean mapped) {
+        this.name = name;
+        this.ticker = ticker;
+        this.mapped = mapped;
+    }
+
+    //an empty growable series in direct memory
+    public static OffHeapPriceSeries allocate(String name, String ticker, int capacity) {
+        OffHeapPriceSeries series = new OffHeapPriceSeries(name, ticker, false);
+        series.dates = new ByteBuffer[1];
+        series.highs = new ByteBuffer[1];
+        series.lows = new ByteBuffer[1];
+        series.firstRow = new int[2];
+        series.chunks = 1;
+        series.grow(Math.max(capacity, DEFAULT_CAPACITY));
+        return series;
+    }
+
+    //a read-only series over existing column buffers, used as they are (no copy);
+    //chunk c holds rows[c] rows: dates as ints, highs and lows as doubles, in the buffers' own byte order
+    public static OffHeapPriceSeries wrap(String name, String ticker,
+            ByteBuffer[] dates, ByteBuffer[] highs, ByteBuffer[] lows, int[] rows) {
+        OffHeapPriceSeries series = new OffHeapPriceSeries(name, ticker, true);
+        series.dates = new ByteBuffer[rows.length];
+        series.highs = new ByteBuffer[rows.length];
+        series.lows = new ByteBuffer[rows.length];
+        series.firstRow = new int[rows.length + 1];
+        for (int c = 0; c < rows.length; c++) {
+            // empty chunks are skipped, so every chunk holds at least one row
+            if (rows[c] == 0)
+                continue;
+            int k = series.chunks++;
+            series.dates[k] = dates[c];
+            series.highs[k] = highs[c];
+            series.lows[k] = lows[c];
+            series.size += rows[c];
+            series.firstRow[k + 1] = series.size;
+        }
+        series.capacity = series.size;
+        return series;
+    }
+
+    // --------------------------------------------------------
+    // APPEND (DIRECT SERIES ONLY, CAPACITY DOUBLES WHEN FULL)
+    // --------------------------------------------------------
+    public void append(int epochDay, double high, double low) {
+        ensureOpen();
+        if (mapped)
+            throw new UnsupportedOperationException("Mapped price series is read-only");
+        if (size == capacity)
+            grow(capacity * 2);
+
+        dates[0].putInt(size * 4, epochDay);
+        highs[0].putDouble(size * 8, high);
+        lows[0].putDouble(size * 8, low);
+        size++;
+        firstRow[1] = size;
+    }
+
+    private void grow(int newCapacity) {
+        dates[0] = copyOf(dates[0], size * 4, newCapacity * 4);
+        highs[0] = copyOf(highs[0], size * 8, newCapacity * 8);
+        lows[0] = copyOf(lows[0], size * 8, newCapacity * 8);
+        capacity = newCapacity;
+    }
+
+    private static ByteBuffer copyOf(ByteBuffer old, int used, int newBytes) {
+        ByteBuffer grown = ByteBuffer.allocateDirect(newBytes).order(ORDER);
+        if (used > 0) {
+            ByteBuffer src = old.duplicate();
+            src.position(0);
+            src.limit(used);
+            grown.put(src).clear();
+        }
+        return grown;
+    }
+
+    // --------------------------------------------------------
+    // ACCESS
+    // --------------------------------------------------------
+    public String getName() {
+        return name;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int date(int i) {
+        int c = chunk(i);
+        return dates[c].getInt((i - firstRow[c]) * 4);
+    }
+
+    public double high(int i) {
+        int c = chunk(i);
+        return highs[c].getDouble((i - firstRow[c]) * 8);
+    }
+
+    public double low(int i) {
+        int c = chunk(i);
+        return lows[c].getDouble((i - firstRow[c]) * 8);
+    }
+
+    //chunk holding row i: the chunk of the previous access when it still fits, else a binary search
+    private int chunk(int i) {
+        ensureOpen();
+        checkIndex(i);
+        int c = lastChunk;
+        if (i >= firstRow[c] && i < firstRow[c + 1])
+            return c;
+
+        int lo = 0;
+        int hi = chunks - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (firstRow[mid] <= i)
+                lo = mid;
+            else
+                hi = mid - 1;
+        }
+        lastChunk = lo;
+        return lo;
+    }
+
+    // --------------------------------------------------------
+    // LIFECYCLE
+    // --------------------------------------------------------
+
+    //drops the buffers, so a stale reference to the series cannot keep them reachable
+    public void close() {
+        closed = true;
+        dates = null;
+        highs = null;
+        lows = null;
+        size = 0;
+    }
+
+    private void ensureOpen() {
+        if (closed)
+            throw new IllegalStateException("Price series " + ticker + " is closed");
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        }
+    }
+}
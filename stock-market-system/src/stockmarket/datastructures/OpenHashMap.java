@@ -0,0 +1,98 @@
+package stockmarket.datastructures;
+
+//open-addressing alternative to CustomHashMap with the same API
+//the keys are a LinearProbeTable (parallel arrays, no Entry node per key, power-of-two masking),
+//the values a parallel Object array
+public class OpenHashMap<K, V> extends LinearProbeTable<K> implements CustomMap<K, V> {
+    private Object[] vals;
+    // values of the old table while a resize is in progress
+    private Object[] oldVals;
+
+    public OpenHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    //sized so that expected entries fit without a resize
+    public OpenHashMap(int expected) {
+        super(expected);
+        this.vals = new Object[keys.length];
+    }
+
+    private static void checkKey(Object key) {
+        if (key == null)
+            throw new IllegalArgumentException("OpenHashMap does not support null keys");
+    }
+
+    public void put(K key, V value) {
+        checkKey(key);
+        int i = probe(key);
+        vals[i] = value;
+        if (keys[i] == null) {
+            keys[i] = key;
+            keyAdded();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        checkKey(key);
+        int i = find(key);
+        return i < 0 ? null : (V) vals[i];
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        checkKey(key);
+        int i = find(key);
+        if (i < 0)
+            return null;
+
+        V removed = (V) vals[i];
+        deleteSlot(i);
+        return removed;
+    }
+
+    public boolean containsKey(K key) {
+        checkKey(key);
+        return find(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public CustomArrayList<V> values() {
+        CustomArrayList<V> result = new CustomArrayList<>(size);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null)
+                result.add((V) vals[i]);
+        }
+        // entries not migrated yet; a drained old slot has no key
+        int slots = slotCount();
+        for (int i = keys.length; i < slots; i++) {
+            if (keyInSlot(i) != null)
+                result.add((V) oldVals[i - keys.length]);
+        }
+        return result;
+    }
+
+    void moveValue(int from, int to) {
+        vals[to] = vals[from];
+    }
+
+    void clearValue(int slot) {
+        vals[slot] = null;
+    }
+
+    void growValues(int capacity) {
+        oldVals = vals;
+        vals = new Object[capacity];
+    }
+
+    //the old slot is cleared, so the value is not kept alive by the old array
+    void migrateValue(int from, int to) {
+        vals[to] = oldVals[from];
+        oldVals[from] = null;
+    }
+
+    void dropOldValues() {
+        oldVals = null;
+    }
+}
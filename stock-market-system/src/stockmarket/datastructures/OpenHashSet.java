@@ -0,0 +1,60 @@
+package stockmarket.datastructures;
+
+//set of object keys on a LinearProbeTable, for callers that only ask whether a key is present
+//(no value array at all, so the value hooks have nothing to do)
+public class OpenHashSet<K> extends LinearProbeTable<K> {
+
+    public OpenHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    //sized so that expected keys fit without a resize
+    public OpenHashSet(int expected) {
+        super(expected);
+    }
+
+    private static void checkKey(Object key) {
+        if (key == null)
+            throw new IllegalArgumentException("OpenHashSet does not support null keys");
+    }
+
+    //adds key with a single probe; false when it was already present
+    public boolean add(K key) {
+        checkKey(key);
+        int i = probe(key);
+        if (keys[i] != null)
+            return false;
+        keys[i] = key;
+        keyAdded();
+        return true;
+    }
+
+    public boolean contains(K key) {
+        checkKey(key);
+        return find(key) >= 0;
+    }
+
+    public boolean remove(K key) {
+        checkKey(key);
+        int i = find(key);
+        if (i < 0)
+            return false;
+        deleteSlot(i);
+        return true;
+    }
+
+    void moveValue(int from, int to) {
+    }
+
+    void clearValue(int slot) {
+    }
+
+    void growValues(int capacity) {
+    }
+
+    void migrateValue(int from, int to) {
+    }
+
+    void dropOldValues() {
+    }
+}
@@ -0,0 +1,306 @@
+package stockmarket.datastructures;
+
+import java.util.function.Consumer;
+
+//immutable hash map (hash array mapped trie): put and remove return a new map and leave this one untouched
+//every node covers 5 bits of the hash and stores only its occupied slots, indexed through a 32-bit bitmap.
+//a new version copies just the nodes on the path to the changed key (at most 7 levels) and shares the rest,
+//so any number of readers can keep using an older version without locks
+public final class PersistentHashMap<K, V> implements MapView<K, V> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final Object NOT_FOUND = new Object();
+
+    @SuppressWarnings("rawtypes")
+    private static final PersistentHashMap EMPTY = new PersistentHashMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    private static int hash(Object key) {
+        if (key == null)
+            throw new IllegalArgumentException("PersistentHashMap does not support null keys");
+        return Hashing.mix(key);
+    }
+
+    // --------------------------------------------------------
+    // READS
+    // --------------------------------------------------------
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        if (root == null)
+            return null;
+        Object v = root.find(0, hash(key), key);
+        return v == NOT_FOUND ? null : (V) v;
+    }
+
+    public boolean containsKey(K key) {
+        return root != null && root.find(0, hash(key), key) != NOT_FOUND;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public CustomArrayList<K> keySet() {
+        CustomArrayList<Object> out = new CustomArrayList<>(size);
+        if (root != null)
+            root.forEach(out::add, true);
+        return (CustomArrayList<K>) (CustomArrayList<?>) out;
+    }
+
+    @SuppressWarnings("unchecked")
+    public CustomArrayList<V> values() {
+        CustomArrayList<Object> out = new CustomArrayList<>(size);
+        if (root != null)
+            root.forEach(out::add, false);
+        return (CustomArrayList<V>) (CustomArrayList<?>) out;
+    }
+
+    //walks the trie without building a list
+    @SuppressWarnings("unchecked")
+    @Override
+    public void forEachValue(Consumer<? super V> action) {
+        if (root != null)
+            root.forEach(v -> action.accept((V) v), false);
+    }
+
+    // --------------------------------------------------------
+    // NEW VERSIONS
+    // --------------------------------------------------------
+
+    //this map plus key -> value; returns this when the key already maps to the same value object
+    public PersistentHashMap<K, V> put(K key, V value) {
+        int h = hash(key);
+        boolean[] added = new boolean[1];
+        Node newRoot = (root == null ? BitmapNode.EMPTY : root).put(0, h, key, value, added);
+        if (newRoot == root)
+            return this;
+        return new PersistentHashMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    //this map without key; returns this when the key is absent
+    public PersistentHashMap<K, V> remove(K key) {
+        if (root == null)
+            return this;
+        Node newRoot = root.remove(0, hash(key), key);
+        if (newRoot == root)
+            return this;
+        return newRoot == null ? empty() : new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    // --------------------------------------------------------
+    // NODES
+    // --------------------------------------------------------
+    private interface Node {
+        Object find(int shift, int hash, Object key);
+
+        Node put(int shift, int hash, Object key, Object value, boolean[] added);
+
+        //null when the node becomes empty
+        Node remove(int shift, int hash, Object key);
+
+        void forEach(Consumer<Object> action, boolean keys);
+    }
+
+    //slot array holds pairs: (key, value) for an entry, or (null, child node) for a subtree
+    private static final class BitmapNode implements Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        final int bitmap;
+        final Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        public Object find(int shift, int hash, Object key) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0)
+                return NOT_FOUND;
+
+            int i = index(bit);
+            Object k = array[2 * i];
+            Object v = array[2 * i + 1];
+            if (k == null)
+                return ((Node) v).find(shift + BITS, hash, key);
+            return key.equals(k) ? v : NOT_FOUND;
+        }
+
+        public Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int i = index(bit);
+
+            if ((bitmap & bit) == 0) {
+                // new slot: copy the array with the pair inserted at its position
+                Object[] grown = new Object[array.length + 2];
+                System.arraycopy(array, 0, grown, 0, 2 * i);
+                grown[2 * i] = key;
+                grown[2 * i + 1] = value;
+                System.arraycopy(array, 2 * i, grown, 2 * i + 2, array.length - 2 * i);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, grown);
+            }
+
+            Object k = array[2 * i];
+            Object v = array[2 * i + 1];
+            if (k == null) {
+                Node child = (Node) v;
+                Node newChild = child.put(shift + BITS, hash, key, value, added);
+                return newChild == child ? this : with(2 * i + 1, newChild, null, false);
+            }
+            if (key.equals(k)) {
+                return v == value ? this : with(2 * i + 1, value, k, true);
+            }
+
+            // two different keys in one slot: push both one level down
+            added[0] = true;
+            Node child = pair(shift + BITS, k, hash(k), v, key, hash, value);
+            return with(2 * i + 1, child, null, false);
+        }
+
+        public Node remove(int shift, int hash, Object key) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0)
+                return this;
+
+            int i = index(bit);
+            Object k = array[2 * i];
+            Object v = array[2 * i + 1];
+            if (k == null) {
+                Node child = (Node) v;
+                Node newChild = child.remove(shift + BITS, hash, key);
+                if (newChild == child)
+                    return this;
+                if (newChild != null)
+                    return with(2 * i + 1, newChild, null, false);
+            } else if (!key.equals(k)) {
+                return this;
+            }
+
+            // drop the slot
+            if (bitmap == bit)
+                return null;
+            Object[] shrunk = new Object[array.length - 2];
+            System.arraycopy(array, 0, shrunk, 0, 2 * i);
+            System.arraycopy(array, 2 * i + 2, shrunk, 2 * i, array.length - 2 * i - 2);
+            return new BitmapNode(bitmap & ~bit, shrunk);
+        }
+
+        public void forEach(Consumer<Object> action, boolean keys) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null)
+                    ((Node) array[i + 1]).forEach(action, keys);
+                else
+                    action.accept(keys ? array[i] : array[i + 1]);
+            }
+        }
+
+        //copy of this node with array[valueIndex] (and optionally its key) replaced
+        private BitmapNode with(int valueIndex, Object value, Object key, boolean keepKey) {
+            Object[] copy = array.clone();
+            copy[valueIndex - 1] = keepKey ? key : null;
+            copy[valueIndex] = value;
+            return new BitmapNode(bitmap, copy);
+        }
+    }
+
+    //keys whose full 32-bit hashes are equal
+    private static final class CollisionNode implements Node {
+        final int hash;
+        final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i]))
+                    return i;
+            }
+            return -1;
+        }
+
+        public Object find(int shift, int hash, Object key) {
+            int i = indexOf(key);
+            return i < 0 ? NOT_FOUND : array[i + 1];
+        }
+
+        public Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                // nest this node under a bitmap node that separates the two hashes
+                int bit = 1 << ((this.hash >>> shift) & MASK);
+                return new BitmapNode(bit, new Object[] { null, this })
+                        .put(shift, hash, key, value, added);
+            }
+
+            int i = indexOf(key);
+            if (i >= 0) {
+                if (array[i + 1] == value)
+                    return this;
+                Object[] copy = array.clone();
+                copy[i + 1] = value;
+                return new CollisionNode(hash, copy);
+            }
+
+            Object[] grown = new Object[array.length + 2];
+            System.arraycopy(array, 0, grown, 0, array.length);
+            grown[array.length] = key;
+            grown[array.length + 1] = value;
+            added[0] = true;
+            return new CollisionNode(hash, grown);
+        }
+
+        public Node remove(int shift, int hash, Object key) {
+            int i = indexOf(key);
+            if (i < 0)
+                return this;
+            if (array.length == 2)
+                return null;
+
+            Object[] shrunk = new Object[array.length - 2];
+            System.arraycopy(array, 0, shrunk, 0, i);
+            System.arraycopy(array, i + 2, shrunk, i, array.length - i - 2);
+            return new CollisionNode(hash, shrunk);
+        }
+
+        public void forEach(Consumer<Object> action, boolean keys) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept(keys ? array[i] : array[i + 1]);
+            }
+        }
+    }
+
+    //smallest subtree holding two entries that collided at the level above
+    private static Node pair(int shift, Object k1, int h1, Object v1, Object k2, int h2, Object v2) {
+        if (h1 == h2)
+            return new CollisionNode(h1, new Object[] { k1, v1, k2, v2 });
+
+        boolean[] ignored = new boolean[1];
+        return BitmapNode.EMPTY
+                .put(shift, h1, k1, v1, ignored)
+                .put(shift, h2, k2, v2, ignored);
+    }
+}
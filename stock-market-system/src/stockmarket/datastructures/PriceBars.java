@@ -0,0 +1,18 @@
+package stockmarket.datastructures;
+
+//read access to the daily bars of one ticker, oldest first
+//implemented on the heap by PriceSeries and off the heap by OffHeapPriceSeries,
+//so analytics can run over either without copying
+public interface PriceBars {
+    String getName();
+
+    String getTicker();
+
+    int size();
+
+    int date(int i);
+
+    double high(int i);
+
+    double low(int i);
+}
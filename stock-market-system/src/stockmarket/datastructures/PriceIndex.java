@@ -0,0 +1,254 @@
+package stockmarket.datastructures;
+
+import stockmarket.models.Stock;
+
+//immutable order-statistics index of stocks by high price (ties broken by ticker)
+//a treap whose nodes also store their subtree size: insert and remove copy the O(log n) nodes on
+//the path and return a new index, so like PersistentHashMap every version stays valid for its readers.
+//sizes give the i-th cheapest stock and the rank of a stock in O(log n); a page or a price range
+//costs O(log n + results). Priorities come from the ticker hash, so the shape is deterministic
+public final class PriceIndex {
+    private static final PriceIndex EMPTY = new PriceIndex(null);
+
+    private static final class Node {
+        final Stock stock;
+        final double key;
+        final int priority;
+        final Node left;
+        final Node right;
+        final int size;
+
+        Node(Stock stock, double key, int priority, Node left, Node right) {
+            this.stock = stock;
+            this.key = key;
+            this.priority = priority;
+            this.left = left;
+            this.right = right;
+            this.size = 1 + size(left) + size(right);
+        }
+
+        Node with(Node newLeft, Node newRight) {
+            return new Node(stock, key, priority, newLeft, newRight);
+        }
+    }
+
+    private final Node root;
+
+    private PriceIndex(Node root) {
+        this.root = root;
+    }
+
+    public static PriceIndex empty() {
+        return EMPTY;
+    }
+
+    private static int size(Node n) {
+        return n == null ? 0 : n.size;
+    }
+
+    private static int priority(Stock stock) {
+        return Hashing.mix(stock.getTicker());
+    }
+
+    //orders by price, then ticker, so every stock has exactly one position
+    private static int compare(double key, String ticker, Node n) {
+        int c = Double.compare(key, n.key);
+        return c != 0 ? c : ticker.compareTo(n.stock.getTicker());
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    // --------------------------------------------------------
+    // NEW VERSIONS
+    // --------------------------------------------------------
+
+    //this index plus stock (a stock with the same ticker and price is replaced)
+    public PriceIndex insert(Stock stock) {
+        return new PriceIndex(insert(root, new Node(stock, stock.getHighPrice(), priority(stock), null, null)));
+    }
+
+    //this index without the entry of stock (matched by ticker and price); this when absent
+    public PriceIndex remove(Stock stock) {
+        Node newRoot = remove(root, stock.getHighPrice(), stock.getTicker());
+        return newRoot == root ? this : new PriceIndex(newRoot);
+    }
+
+    //moves a ticker from its old quote to its new one, the per-ticker update of a new trading day
+    public PriceIndex replace(Stock old, Stock updated) {
+        PriceIndex removed = old == null ? this : remove(old);
+        return removed.insert(updated);
+    }
+
+    private static Node insert(Node t, Node n) {
+        if (t == null)
+            return n;
+        int c = compare(n.key, n.stock.getTicker(), t);
+        if (c == 0)
+            return new Node(n.stock, n.key, t.priority, t.left, t.right);
+        if (n.priority > t.priority) {
+            // n becomes the root of this subtree: split t around it
+            Node[] parts = split(t, n.key, n.stock.getTicker());
+            return n.with(parts[0], parts[1]);
+        }
+        return c < 0 ? t.with(insert(t.left, n), t.right) : t.with(t.left, insert(t.right, n));
+    }
+
+    private static Node remove(Node t, double key, String ticker) {
+        if (t == null)
+            return null;
+        int c = compare(key, ticker, t);
+        if (c == 0)
+            return merge(t.left, t.right);
+        if (c < 0) {
+            Node newLeft = remove(t.left, key, ticker);
+            return newLeft == t.left ? t : t.with(newLeft, t.right);
+        }
+        Node newRight = remove(t.right, key, ticker);
+        return newRight == t.right ? t : t.with(t.left, newRight);
+    }
+
+    //{entries before (key, ticker), entries after it}; the split key itself is never in t
+    private static Node[] split(Node t, double key, String ticker) {
+        if (t == null)
+            return new Node[2];
+        if (compare(key, ticker, t) < 0) {
+            Node[] parts = split(t.left, key, ticker);
+            parts[1] = t.with(parts[1], t.right);
+            return parts;
+        }
+        Node[] parts = split(t.right, key, ticker);
+        parts[0] = t.with(t.left, parts[0]);
+        return parts;
+    }
+
+    //joins two treaps where every entry of a comes before every entry of b
+    private static Node merge(Node a, Node b) {
+        if (a == null)
+            return b;
+        if (b == null)
+            return a;
+        if (a.priority > b.priority)
+            return a.with(a.left, merge(a.right, b));
+        return b.with(merge(a, b.left), b.right);
+    }
+
+    // --------------------------------------------------------
+    // QUERIES
+    // --------------------------------------------------------
+
+    //the stock at position rank in ascending price order (0 = cheapest)
+    public Stock get(int rank) {
+        if (rank < 0 || rank >= size())
+            throw new IndexOutOfBoundsException("Rank: " + rank + ", Size: " + size());
+        Node n = root;
+        while (true) {
+            int leftSize = size(n.left);
+            if (rank < leftSize) {
+                n = n.left;
+            } else if (rank == leftSize) {
+                return n.stock;
+            } else {
+                rank -= leftSize + 1;
+                n = n.right;
+            }
+        }
+    }
+
+    //number of stocks ordered before stock (its 0-based ascending rank), or -1 when it is not indexed
+    public int rankOf(Stock stock) {
+        double key = stock.getHighPrice();
+        String ticker = stock.getTicker();
+        int rank = 0;
+        Node n = root;
+        while (n != null) {
+            int c = compare(key, ticker, n);
+            if (c == 0)
+                return rank + size(n.left);
+            if (c < 0) {
+                n = n.left;
+            } else {
+                rank += size(n.left) + 1;
+                n = n.right;
+            }
+        }
+        return -1;
+    }
+
+    //up to count stocks starting at position from, cheapest first or (descending) most expensive first
+    public CustomArrayList<Stock> page(int from, int count, boolean ascending) {
+        int n = size();
+        int start = Math.max(0, from);
+        int end = Math.min(n, start + Math.max(0, count));
+        CustomArrayList<Stock> out = new CustomArrayList<>(Math.max(0, end - start));
+        if (ascending) {
+            collectRanks(root, start, end, out);
+        } else {
+            // ascending ranks [n - end, n - start), reversed
+            CustomArrayList<Stock> asc = new CustomArrayList<>(Math.max(0, end - start));
+            collectRanks(root, n - end, n - start, asc);
+            for (int i = asc.size() - 1; i >= 0; i--) {
+                out.add(asc.get(i));
+            }
+        }
+        return out;
+    }
+
+    //stocks with minPrice <= high price <= maxPrice, cheapest first
+    public CustomArrayList<Stock> range(double minPrice, double maxPrice) {
+        CustomArrayList<Stock> out = new CustomArrayList<>();
+        collectRange(root, minPrice, maxPrice, out);
+        return out;
+    }
+
+    //number of stocks with minPrice <= high price <= maxPrice, O(log n)
+    public int countInRange(double minPrice, double maxPrice) {
+        if (minPrice > maxPrice)
+            return 0;
+        return countBelow(maxPrice, true) - countBelow(minPrice, false);
+    }
+
+    //number of stocks priced below price (or at most price when inclusive), which is also
+    //the ascending rank of the first stock priced at or above it
+    public int countBelow(double price, boolean inclusive) {
+        int count = 0;
+        Node n = root;
+        while (n != null) {
+            boolean goRight = inclusive ? n.key <= price : n.key < price;
+            if (goRight) {
+                count += size(n.left) + 1;
+                n = n.right;
+            } else {
+                n = n.left;
+            }
+        }
+        return count;
+    }
+
+    //in-order walk over ascending ranks [from, to), skipping subtrees outside it
+    private static void collectRanks(Node n, int from, int to, CustomArrayList<Stock> out) {
+        if (n == null || from >= to || to <= 0 || from >= n.size)
+            return;
+        int leftSize = size(n.left);
+        collectRanks(n.left, from, to, out);
+        if (from <= leftSize && leftSize < to)
+            out.add(n.stock);
+        collectRanks(n.right, from - leftSize - 1, to - leftSize - 1, out);
+    }
+
+    private static void collectRange(Node n, double min, double max, CustomArrayList<Stock> out) {
+        if (n == null)
+            return;
+        if (n.key >= min)
+            collectRange(n.left, min, max, out);
+        if (n.key >= min && n.key <= max)
+            out.add(n.stock);
+        if (n.key <= max)
+            collectRange(n.right, min, max, out);
+    }
+}
@@ -0,0 +1,132 @@
+package stockmarket.datastructures;
+
+//price history of one ticker stored as parallel primitive arrays (struct of arrays)
+//one bar costs 20 bytes (int date + two doubles) instead of a Stock object per day,
+//and scans over highs/lows are plain sequential array loops
+public class PriceSeries implements PriceBars {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final String name;
+    private final String ticker;
+    private int[] dates;
+    private double[] highs;
+    private double[] lows;
+    private int size;
+
+    public PriceSeries(String name, String ticker) {
+        this(name, ticker, DEFAULT_CAPACITY);
+    }
+
+    public PriceSeries(String name, String ticker, int capacity) {
+        this.name = name;
+        this.ticker = ticker;
+        capacity = Math.max(capacity, 1);
+        this.dates = new int[capacity];
+        this.highs = new double[capacity];
+        this.lows = new double[capacity];
+    }
+
+    // --------------------------------------------------------
+    // APPEND (AMORTIZED O(1), CAPACITY DOUBLES WHEN FULL)
+    // --------------------------------------------------------
+    public void append(int epochDay, double high, double low) {
+        if (size == dates.length) {
+            ensureCapacity(size + 1);
+        }
+        dates[size] = epochDay;
+        highs[size] = high;
+        lows[size] = low;
+        size++;
+    }
+
+    //appends every bar of other with one bulk copy per column
+    public void appendAll(PriceSeries other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.dates, 0, dates, size, other.size);
+        System.arraycopy(other.highs, 0, highs, size, other.size);
+        System.arraycopy(other.lows, 0, lows, size, other.size);
+        size += other.size;
+    }
+
+    public void ensureCapacity(int needed) {
+        if (needed <= dates.length)
+            return;
+        int capacity = Math.max(needed, dates.length * 2);
+        int[] newDates = new int[capacity];
+        double[] newHighs = new double[capacity];
+        double[] newLows = new double[capacity];
+        System.arraycopy(dates, 0, newDates, 0, size);
+        System.arraycopy(highs, 0, newHighs, 0, size);
+        System.arraycopy(lows, 0, newLows, 0, size);
+        dates = newDates;
+        highs = newHighs;
+        lows = newLows;
+    }
+
+    // --------------------------------------------------------
+    // ACCESS
+    // --------------------------------------------------------
+    public String getName() {
+        return name;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int date(int i) {
+        checkIndex(i);
+        return dates[i];
+    }
+
+    public double high(int i) {
+        checkIndex(i);
+        return highs[i];
+    }
+
+    public double low(int i) {
+        checkIndex(i);
+        return lows[i];
+    }
+
+    //bars [from, to) as a new series, copied in bulk
+    public PriceSeries slice(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Slice [" + from + ", " + to + ") of " + size);
+        }
+        PriceSeries part = new PriceSeries(name, ticker, to - from);
+        System.arraycopy(dates, from, part.dates, 0, to - from);
+        System.arraycopy(highs, from, part.highs, 0, to - from);
+        System.arraycopy(lows, from, part.lows, 0, to - from);
+        part.size = to - from;
+        return part;
+    }
+
+    //first bar on or after epochDay (size when there is none); dates are in ascending order
+    public int indexOfDate(int epochDay) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (dates[mid] < epochDay)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package stockmarket.models;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+//market dates are kept as int epoch days (days since 01-01-1970) everywhere,
+//and only turned into dd-MM-yyyy text when they are displayed or exported
+public class MarketDate {
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+//formats an epoch day as dd-MM-yyyy
+    public static String format(int epochDay) {
+        if (epochDay == NONE)
+            return "-";
+        return LocalDate.ofEpochDay(epochDay).format(DATE_FORMAT);
+    }
+//parses dd-MM-yyyy into an epoch day
+    public static int parse(String date) {
+        return (int) LocalDate.parse(date.trim(), DATE_FORMAT).toEpochDay();
+    }
+//today's date as an epoch day
+    public static int today() {
+        return (int) LocalDate.now().toEpochDay();
+    }
+}
@@ -1,20 +1,22 @@
 package stockmarket.models;
 
-import stockmarket.datastructures.CustomHashMap;
-import stockmarket.datastructures.CustomArrayList;
+import stockmarket.datastructures.MapView;
+import stockmarket.datastructures.ObjectDoubleMap;
+import stockmarket.datastructures.ObjectIntMap;
 //tracks current stock holdings, average buy and sell prices and avaliable cash
+//trades and valuation are synchronized, so several trading threads can share one portfolio
 public class Portfolio {
-    private CustomHashMap<String, Integer> holdings;
+    private ObjectIntMap<String> holdings;
     private double cashBalance;
-    private CustomHashMap<String, Double> avgBuyPrice;
+    private ObjectDoubleMap<String> avgBuyPrice;
 
     public Portfolio(double initialCash) {
-        this.holdings = new CustomHashMap<>();
-        this.avgBuyPrice = new CustomHashMap<>();
+        this.holdings = new ObjectIntMap<>();
+        this.avgBuyPrice = new ObjectDoubleMap<>();
         this.cashBalance = initialCash;
     }
 //buys a specified quantity of stock at a particular price
-    public boolean buyStock(String ticker, int quantity, double pricePerShare) {
+    public synchronized boolean buyStock(String ticker, int quantity, double pricePerShare) {
         double totalCost = quantity * pricePerShare;
         if (totalCost > cashBalance) {
             return false;
@@ -22,22 +24,26 @@ public class Portfolio {
 
         cashBalance -= totalCost;
 
-        Integer currentQty = holdings.get(ticker);
-        if (currentQty == null) {
+        // one lookup per map: the slot is read and updated in place
+        int slot = holdings.indexOf(ticker);
+        if (slot < 0) {
             holdings.put(ticker, quantity);
             avgBuyPrice.put(ticker, pricePerShare);
         } else {
-            Double currentAvg = avgBuyPrice.get(ticker);
+            int currentQty = holdings.valueAt(slot);
+            int avgSlot = avgBuyPrice.indexOf(ticker);
+            double currentAvg = avgBuyPrice.valueAt(avgSlot);
             double newAvg = ((currentAvg * currentQty) + (pricePerShare * quantity)) / (currentQty + quantity);
-            holdings.put(ticker, currentQty + quantity);
-            avgBuyPrice.put(ticker, newAvg);
+            holdings.setValueAt(slot, currentQty + quantity);
+            avgBuyPrice.setValueAt(avgSlot, newAvg);
         }
         return true;
     }
 //sells a amount of stock at a particular price
-    public boolean sellStock(String ticker, int quantity, double pricePerShare) {
-        Integer currentQty = holdings.get(ticker);
-        if (currentQty == null || currentQty < quantity) {
+    public synchronized boolean sellStock(String ticker, int quantity, double pricePerShare) {
+        int slot = holdings.indexOf(ticker);
+        int currentQty = slot < 0 ? 0 : holdings.valueAt(slot);
+        if (slot < 0 || currentQty < quantity) {
             return false;
         }
         //adds sale value to cash balance
@@ -47,34 +53,35 @@ public class Portfolio {
             holdings.remove(ticker);
             avgBuyPrice.remove(ticker);
         } else {
-            holdings.put(ticker, currentQty - quantity);
+            holdings.setValueAt(slot, currentQty - quantity);
         }
         return true;
     }
 //to display the current net worth of the portfolio
-    public double getCashBalance() {
+    public synchronized double getCashBalance() {
         return cashBalance;
     }
 
-    public double calculateNetWorth(CustomHashMap<String, Stock> currentPrices) {
+    public synchronized double calculateNetWorth(MapView<String, Stock> currentPrices) {
         double netWorth = cashBalance;
-        CustomArrayList<String> tickers = holdings.keySet();
-        for (int i = 0; i < tickers.size(); i++) {
-            String ticker = tickers.get(i);
-            Integer qty = holdings.get(ticker);
+        // walks the slots directly, so no key list is built
+        for (int i = 0; i < holdings.capacity(); i++) {
+            String ticker = holdings.keyAt(i);
+            if (ticker == null)
+                continue;
             Stock stock = currentPrices.get(ticker);
             if (stock != null) {
-                netWorth += qty * stock.getAvgPrice();
+                netWorth += holdings.valueAt(i) * stock.getAvgPrice();
             }
         }
         return netWorth;
     }
-//return a map of current stock holdings
-    public CustomHashMap<String, Integer> getHoldings() {
-        return holdings;
+//returns a copy of the current stock holdings, so callers can walk it while other threads trade
+    public synchronized ObjectIntMap<String> getHoldings() {
+        return holdings.copy();
     }
-//returns a map of the average buying prices
-    public CustomHashMap<String, Double> getAvgBuyPrice() {
-        return avgBuyPrice;
+//returns a copy of the average buying prices
+    public synchronized ObjectDoubleMap<String> getAvgBuyPrice() {
+        return avgBuyPrice.copy();
     }
 }
\ No newline at end of file
@@ -1,16 +1,17 @@
 package stockmarket.models;
 //represents basic information about the stock like its name, ticker symbol, date and highest/lowest price
+//a Stock is an immutable quote: a new trading day produces a new Stock, so a quote can be shared freely
 public class Stock {
-    private String name;
-    private String ticker;
-    private String date;
-    private double highPrice;
-    private double lowPrice;
+    private final String name;
+    private final String ticker;
+    private final int epochDay;
+    private final double highPrice;
+    private final double lowPrice;
 
-    public Stock(String name, String ticker, String date, double highPrice, double lowPrice) {
+    public Stock(String name, String ticker, int epochDay, double highPrice, double lowPrice) {
         this.name = name;
         this.ticker = ticker;
-        this.date = date;
+        this.epochDay = epochDay;
         this.highPrice = highPrice;
         this.lowPrice = lowPrice;
     }
@@ -22,9 +23,9 @@ public class Stock {
     public String getTicker() {
         return ticker;
     }
-//to get date of stock data
-    public String getDate() {
-        return date;
+//to get date of stock data as an epoch day
+    public int getEpochDay() {
+        return epochDay;
     }
 //to get highest price of stock
     public double getHighPrice() {
@@ -38,22 +39,14 @@ public class Stock {
     public double getAvgPrice() {
         return (highPrice + lowPrice) / 2.0;
     }
-//to set date for selling stock
-    public void setDate(String date) {
-        this.date = date;
-    }
-//sets the highest selling price for the stock
-    public void setHighPrice(double highPrice) {
-        this.highPrice = highPrice;
-    }
-//sets the lowest selling price for the stock
-    public void setLowPrice(double lowPrice) {
-        this.lowPrice = lowPrice;
-    }
 
     @Override
     public String toString() {
+        return format(name, ticker, epochDay, highPrice, lowPrice);
+    }
+//formats one quote line without needing a Stock object (used when streaming history)
+    public static String format(String name, String ticker, int epochDay, double highPrice, double lowPrice) {
         return String.format("%-20s %-8s %12s High: $%-8.2f Low: $%-8.2f",
-                name, ticker, date, highPrice, lowPrice);
+                name, ticker, MarketDate.format(epochDay), highPrice, lowPrice);
     }
 }
\ No newline at end of file
@@ -1,19 +1,35 @@
 package stockmarket.services;
 
+import stockmarket.models.MarketDate;
 import stockmarket.models.Stock;
-import stockmarket.datastructures.CustomHashMap;
+import stockmarket.datastructures.CustomMap;
+import stockmarket.datastructures.OffHeapPriceSeries;
+import stockmarket.datastructures.OpenHashMap;
+import stockmarket.datastructures.PriceSeries;
 import stockmarket.datastructures.CustomArrayList;
-import stockmarket.algorithms.PriceSimulator;
+import stockmarket.algorithms.BestTradeTracker;
+import stockmarket.algorithms.MarketTradeScan;
+import stockmarket.storage.CsvRowParser;
+import stockmarket.storage.HistoryCursor;
+import stockmarket.storage.MarketSnapshot;
+import stockmarket.storage.ParallelCsvLoader;
+import stockmarket.storage.TickStore;
 
 import java.io.*;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.Locale;
 
 public class DataManager {
 
     private static final String CSV_FILE = "data/stock_data.csv";
+    private static final String STORE_FILE = "data/stock_data.bin";
+    private static final String INDEX_FILE = "data/stock_data.idx";
+    private static final String SNAPSHOT_FILE = "data/stock_data.snap";
     private static final String INITIAL_DATA_FILE = "data/market2.txt";
-    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final long PARALLEL_IMPORT_BYTES = 8L << 20;
+    private static final long COMPACT_ROWS = 1L << 16;
+
+    // binary columnar copy of the CSV, used for every read
+    private static TickStore store;
 
     // --------------------------------------------------------
     // INITIALIZE CSV ON FIRST RUN
@@ -29,6 +45,87 @@ public class DataManager {
         }
     }
 
+    // --------------------------------------------------------
+    // OPEN TICK STORE (LAZILY), REBUILDING IT IF THE CSV CHANGED
+    // --------------------------------------------------------
+    private static void openStore() {
+        if (store != null)
+            return;
+
+        File csv = new File(CSV_FILE);
+        try {
+            store = TickStore.open(new File(STORE_FILE), new File(INDEX_FILE));
+
+            // CSV replaced or edited outside the app: store and index no longer mirror it
+            if (!store.matchesSource(csv.length(), csv.lastModified())) {
+                if (!store.isEmpty()) {
+                    System.out.println("Tick store is stale, rebuilding from CSV...");
+                    store.reset();
+                }
+                importCsv();
+            }
+
+            // fold closed-out blocks into compressed history segments
+            if (store.compactableRows() >= COMPACT_ROWS) {
+                compactStore();
+            }
+        } catch (IOException e) {
+            System.err.println("Error opening tick store: " + e.getMessage());
+            store = null;
+        }
+    }
+
+    //a failed compaction only leaves some history uncompressed, so the store is kept open either way
+    private static void compactStore() {
+        try {
+            store.compact();
+        } catch (IOException e) {
+            System.err.println("Tick store compaction skipped: " + e.getMessage());
+        }
+    }
+
+    private static void importCsv() throws IOException {
+        File csv = new File(CSV_FILE);
+        long count = csv.length() >= PARALLEL_IMPORT_BYTES ? importCsvParallel(csv) : importCsvSequential();
+
+        store.setSource(csv.length(), csv.lastModified());
+        store.flush();
+
+        System.out.println("Imported " + count + " rows into " + STORE_FILE);
+    }
+
+    private static long importCsvSequential() throws IOException {
+        try (InputStream in = new FileInputStream(CSV_FILE)) {
+            CsvRowParser parser = new CsvRowParser(in);
+            parser.skipLine(); // header
+
+            long count = 0;
+            while (parser.next()) {
+                store.append(parser.getName(), parser.getTicker(), parser.getEpochDay(),
+                        parser.getHighPrice(), parser.getLowPrice());
+                count++;
+            }
+            return count;
+        }
+    }
+
+    //large files are parsed on the fork-join pool, then written ticker by ticker
+    private static long importCsvParallel(File csv) throws IOException {
+        ParallelCsvLoader.Result result = ParallelCsvLoader.load(csv);
+
+        if (result.badLines > 0) {
+            System.err.println("Skipped " + result.badLines + " bad CSV lines");
+        }
+
+        for (int i = 0; i < result.tickers.size(); i++) {
+            PriceSeries c = result.tickers.get(i);
+            for (int r = 0; r < c.size(); r++) {
+                store.append(c.getName(), c.getTicker(), c.date(r), c.high(r), c.low(r));
+            }
+        }
+        return result.rows;
+    }
+
     // --------------------------------------------------------
     // LOAD INITIAL TEXT FILE INTO CSV
     // --------------------------------------------------------
@@ -78,157 +175,204 @@ public class DataManager {
     // --------------------------------------------------------
     // LOAD LATEST STOCKS (ONE PER TICKER)
     // --------------------------------------------------------
-    public static CustomHashMap<String, Stock> loadCurrentStocks() {
-        CustomHashMap<String, Stock> latest = new CustomHashMap<>();
-
-        try {
-            BufferedReader reader = new BufferedReader(new FileReader(CSV_FILE));
-            reader.readLine(); // header
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                Stock s = parseLine(line);
-                if (s != null) {
-                    // last occurrence = latest date (CSV always sorted by date)
-                    latest.put(s.getTicker(), s);
-                }
-            }
-
-            reader.close();
-
-        } catch (Exception e) {
-            System.err.println("Error loading stock list: " + e.getMessage());
+    public static CustomMap<String, Stock> loadCurrentStocks() {
+        CustomMap<String, Stock> latest = new OpenHashMap<>();
+        openStore();
+        if (store == null)
+            return latest;
+
+        // one directory entry per ticker, no history is read
+        for (int id = 0; id < store.tickerCount(); id++) {
+            if (store.rows(id) == 0)
+                continue;
+            latest.put(store.ticker(id), new Stock(store.name(id), store.ticker(id),
+                    store.lastDate(id), store.lastHigh(id), store.lastLow(id)));
         }
 
         return latest;
     }
 
     // --------------------------------------------------------
-    // LOAD COMPLETE HISTORY FOR ONE TICKER
+    // MAP COMPLETE HISTORY FOR ONE TICKER STRAIGHT FROM THE STORE (CALLER MUST CLOSE IT, NULL WHEN UNKNOWN)
     // --------------------------------------------------------
-    public static CustomArrayList<Stock> loadStockHistory(String ticker) {
-        CustomArrayList<Stock> history = new CustomArrayList<>();
+    public static OffHeapPriceSeries mapStockHistory(String ticker) {
+        openStore();
+        int id = store == null ? -1 : store.find(ticker);
+        if (id < 0)
+            return null;
 
-        try {
-            BufferedReader reader = new BufferedReader(new FileReader(CSV_FILE));
-            reader.readLine(); // header
+        return store.mapHistory(id);
+    }
 
-            String line;
-            while ((line = reader.readLine()) != null) {
-                Stock s = parseLine(line);
-                if (s != null && s.getTicker().equalsIgnoreCase(ticker)) {
-                    history.add(s);
-                }
-            }
+    // --------------------------------------------------------
+    // STREAM HISTORY FOR ONE TICKER (NULL WHEN UNKNOWN)
+    // --------------------------------------------------------
+    public static HistoryCursor openHistory(String ticker) {
+        return openHistory(ticker, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
 
-            reader.close();
+    public static HistoryCursor openHistory(String ticker, int fromDay, int toDay) {
+        openStore();
+        if (store == null)
+            return null;
 
-        } catch (Exception e) {
-            System.err.println("Error loading history: " + e.getMessage());
-        }
+        int id = store.find(ticker);
+        if (id < 0)
+            return null;
 
-        return history;
+        return store.cursor(id, fromDay, toDay);
     }
 
     // --------------------------------------------------------
-    // PARSE CSV LINE INTO STOCK OBJECT
+    // ONLINE BEST-TRADE TRACKER FOR ONE TICKER, SEEDED FROM ITS HISTORY (NULL WHEN UNKNOWN)
     // --------------------------------------------------------
-    private static Stock parseLine(String line) {
-        try {
-            String[] p = line.split(",");
-            if (p.length < 5)
-                return null;
+    public static BestTradeTracker loadBestTradeTracker(String ticker) {
+        openStore();
+        int id = store == null ? -1 : store.find(ticker);
+        if (id < 0)
+            return null;
 
-            String name = p[0].trim();
-            String ticker = p[1].trim();
-            String date = p[2].trim();
+        BestTradeTracker tracker = new BestTradeTracker(store.name(id), store.ticker(id));
+        store.forEachRow(id, tracker);
+        return tracker;
+    }
 
-            double high = Double.parseDouble(p[3].trim());
-            double low = Double.parseDouble(p[4].trim());
+    // --------------------------------------------------------
+    // BEST HISTORICAL TRADE OF EVERY TICKER (ONE PARALLEL PASS OVER THE STORE)
+    // --------------------------------------------------------
+    public static CustomArrayList<MarketTradeScan.TickerTrade> findBestTradesAllTickers() {
+        openStore();
+        if (store == null)
+            return new CustomArrayList<>(0);
 
-            return new Stock(name, ticker, date, high, low);
-        } catch (Exception e) {
-            System.err.println("Skipping bad CSV line: " + line);
-            return null;
-        }
+        return MarketTradeScan.bestTrades(store);
     }
 
     // --------------------------------------------------------
-    // ADVANCE MARKET BY ONE DAY
+    // APPEND ONE SIMULATED DAY (ONE ROW PER STOCK)
     // --------------------------------------------------------
-    public static void advanceDay() {
-        CustomHashMap<String, Stock> current = loadCurrentStocks();
-
-        if (current.isEmpty()) {
-            System.err.println("No stocks found.");
-            return;
-        }
+    public static boolean appendDay(CustomArrayList<Stock> day) {
+        openStore();
+        if (store == null)
+            return false;
 
-        String nextDate = computeNextDate();
+        File csv = new File(CSV_FILE);
+        long csvLength = csv.length();
 
         try {
-            BufferedWriter writer = new BufferedWriter(new FileWriter(CSV_FILE, true));
-
-            CustomArrayList<String> tickers = current.keySet();
-
-            for (int i = 0; i < tickers.size(); i++) {
-                String ticker = tickers.get(i);
-                Stock s = current.get(ticker);
-
-                double[] np = PriceSimulator.simulateNextDayPrices(
-                        s.getHighPrice(),
-                        s.getLowPrice());
-
-                // safety: no stock falls to zero or below
-                np[0] = Math.max(np[0], 1);
-                np[1] = Math.max(np[1], 1);
+            StringBuilder lines = new StringBuilder(day.size() * 48);
+            int formattedDay = MarketDate.NONE;
+            String formatted = null;
+
+            // the store rows go in first, the CSV only grows once all of them were written
+            for (int i = 0; i < day.size(); i++) {
+                Stock s = day.get(i);
+
+                // every row of a day shares the date, so it is formatted once for the export
+                if (s.getEpochDay() != formattedDay) {
+                    formattedDay = s.getEpochDay();
+                    formatted = MarketDate.format(formattedDay);
+                }
 
-                String line = String.format(
+                // Locale.ROOT keeps the decimal point that CsvRowParser reads back
+                lines.append(String.format(Locale.ROOT,
                         "%s,%s,%s,%.2f,%.2f%s",
-                        s.getName(), ticker, nextDate, np[0], np[1],
-                        System.lineSeparator());
+                        s.getName(), s.getTicker(), formatted, s.getHighPrice(), s.getLowPrice(),
+                        System.lineSeparator()));
 
-                writer.write(line);
+                store.append(s.getName(), s.getTicker(), s.getEpochDay(),
+                        s.getHighPrice(), s.getLowPrice());
             }
 
-            writer.close();
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(CSV_FILE, true))) {
+                writer.write(lines.toString());
+            }
 
-            System.out.println("Market advanced to " + nextDate);
+            // the append above and the index update are one step
+            store.setSource(csv.length(), csv.lastModified());
+            store.flush();
+            return true;
 
         } catch (Exception e) {
             System.err.println("Error advancing day: " + e.getMessage());
+            discardDay(csvLength);
+            return false;
         }
     }
 
+    //undoes a half-written day: the CSV is cut back to its old length, and the store, which may
+    //already hold some of the day's rows, is marked stale so the next open rebuilds it from the CSV
+    private static void discardDay(long csvLength) {
+        try (RandomAccessFile raf = new RandomAccessFile(CSV_FILE, "rw")) {
+            if (raf.length() > csvLength)
+                raf.setLength(csvLength);
+        } catch (IOException e) {
+            System.err.println("Error restoring " + CSV_FILE + ": " + e.getMessage());
+        }
+
+        try {
+            store.setSource(0, 0);
+            store.close();
+        } catch (IOException e) {
+            System.err.println("Error closing tick store: " + e.getMessage());
+        }
+        store = null;
+    }
+
     // --------------------------------------------------------
-    // GET NEXT DATE BASED ON LAST CSV ENTRY
+    // LATEST QUOTES FROM SNAPSHOT + CSV TAIL (NULL WHEN UNUSABLE)
     // --------------------------------------------------------
-    private static String computeNextDate() {
-        String lastDate = null;
+    public static MarketSnapshot loadSnapshot() {
+        MarketSnapshot snap = MarketSnapshot.read(new File(SNAPSHOT_FILE));
+        if (snap == null)
+            return null;
 
         try {
-            BufferedReader reader = new BufferedReader(new FileReader(CSV_FILE));
-            reader.readLine(); // skip header
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] p = line.split(",");
-                if (p.length >= 3) {
-                    lastDate = p[2].trim();
-                }
-            }
-            reader.close();
+            // rows appended after the checkpoint are replayed, a rewritten CSV is rejected
+            return snap.catchUp(new File(CSV_FILE)) ? snap : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
 
-        } catch (Exception ignored) {
+    // --------------------------------------------------------
+    // CHECKPOINT LATEST QUOTES AND MARKET DATE
+    // --------------------------------------------------------
+    public static void saveSnapshot(CustomArrayList<Stock> stocks, int marketDate) {
+        MarketSnapshot snap = new MarketSnapshot();
+        for (int i = 0; i < stocks.size(); i++) {
+            Stock s = stocks.get(i);
+            snap.put(s.getName(), s.getTicker(), s.getEpochDay(), s.getHighPrice(), s.getLowPrice());
         }
+        snap.setMarketDate(marketDate);
 
-        if (lastDate == null) {
-            return LocalDate.now().format(DATE_FORMAT);
+        try {
+            snap.coverSource(new File(CSV_FILE));
+            snap.write(new File(SNAPSHOT_FILE));
+        } catch (IOException e) {
+            System.err.println("Error writing snapshot: " + e.getMessage());
         }
+    }
 
-        LocalDate d = LocalDate.parse(lastDate, DATE_FORMAT);
-        d = d.plusDays(1);
+    // --------------------------------------------------------
+    // CURRENT MARKET DATE FROM STORE METADATA (NO ROWS READ)
+    // --------------------------------------------------------
+    public static int loadCurrentDate() {
+        openStore();
+        if (store == null)
+            return MarketDate.NONE;
+
+        return store.marketDate();
+    }
+
+    // --------------------------------------------------------
+    // DAY AFTER THE GIVEN DATE (TODAY WHEN THERE IS NO DATE)
+    // --------------------------------------------------------
+    public static int nextDate(int epochDay) {
+        if (epochDay == MarketDate.NONE) {
+            return MarketDate.today();
+        }
 
-        return d.format(DATE_FORMAT);
+        return epochDay + 1;
     }
 }
@@ -0,0 +1,185 @@
+package stockmarket.services;
+
+import stockmarket.models.MarketDate;
+import stockmarket.models.Stock;
+import stockmarket.datastructures.ConcurrentCustomHashMap;
+import stockmarket.datastructures.CustomMap;
+import stockmarket.datastructures.CustomArrayList;
+import stockmarket.datastructures.MapView;
+import stockmarket.datastructures.PersistentHashMap;
+import stockmarket.datastructures.PriceIndex;
+import stockmarket.algorithms.BestTradeTracker;
+import stockmarket.algorithms.PriceSimulator;
+import stockmarket.algorithms.SymbolIndex;
+import stockmarket.storage.MarketSnapshot;
+
+//keeps the latest quote per ticker and the current market date in memory for the whole session
+//advancing a day only appends the new rows to disk and checkpoints a snapshot
+//startup reads that snapshot (plus any CSV rows written after it) instead of the history
+//
+//the quotes form an immutable PersistentHashMap of immutable Stocks. every simulated day builds a new
+//version (sharing all unchanged structure) and publishes it together with its date in one volatile write,
+//so readers take a consistent snapshot with getStocks() without any locking.
+//the same version carries a PriceIndex ordered by price, updated per ticker in O(log n) as each new
+//quote is created, so sorted pages, ranks and price ranges never need a re-sort.
+//best-trade trackers are seeded from the history the first time a ticker is looked at and then
+//fed each new bar in O(1), so the best trade of a ticker never needs a re-scan. they sit in a
+//ConcurrentCustomHashMap, so looking one up takes no lock even while advanceDay runs
+public class MarketState {
+    //one published state of the market: the quotes, the date they belong to and the quotes of the
+    //day before (shares almost all of its structure with quotes, so keeping it is cheap)
+    private static final class Version {
+        final PersistentHashMap<String, Stock> quotes;
+        final PersistentHashMap<String, Stock> previous;
+        final PriceIndex byPrice;
+        final int date;
+
+        Version(PersistentHashMap<String, Stock> quotes, PersistentHashMap<String, Stock> previous,
+                PriceIndex byPrice, int date) {
+            this.quotes = quotes;
+            this.previous = previous;
+            this.byPrice = byPrice;
+            this.date = date;
+        }
+    }
+
+    private volatile Version current;
+    // same quotes in file order, only touched by advanceDay
+    private CustomArrayList<Stock> stockList;
+    private SymbolIndex symbols;
+    // only tickers someone has looked at; lock-free reads, new trackers are added under this
+    private final ConcurrentCustomHashMap<String, BestTradeTracker> trackers = new ConcurrentCustomHashMap<>();
+
+    public MarketState() {
+        DataManager.initializeData();
+
+        PersistentHashMap<String, Stock> quotes = PersistentHashMap.empty();
+        PriceIndex byPrice = PriceIndex.empty();
+        int date;
+        MarketSnapshot snap = DataManager.loadSnapshot();
+        if (snap != null) {
+            this.stockList = new CustomArrayList<>(snap.size());
+            for (int i = 0; i < snap.size(); i++) {
+                stockList.add(new Stock(snap.name(i), snap.ticker(i),
+                        snap.date(i), snap.high(i), snap.low(i)));
+            }
+            date = snap.getMarketDate();
+        } else {
+            CustomMap<String, Stock> loaded = DataManager.loadCurrentStocks();
+            this.stockList = loaded.values();
+            date = DataManager.loadCurrentDate();
+        }
+
+        this.symbols = new SymbolIndex();
+        for (Stock s : stockList) {
+            quotes = quotes.put(s.getTicker(), s);
+            byPrice = byPrice.insert(s);
+            symbols.add(s.getTicker(), s.getName());
+        }
+        // no earlier day is loaded at startup
+        this.current = new Version(quotes, quotes, byPrice, date);
+
+        if (snap == null && !stockList.isEmpty()) {
+            DataManager.saveSnapshot(stockList, date);
+        }
+    }
+//returns a consistent, immutable snapshot of the latest quote for every ticker
+    public MapView<String, Stock> getStocks() {
+        return current.quotes;
+    }
+//quotes of the previous trading day in this session, the same map as getStocks() until the first advance
+    public MapView<String, Stock> getPreviousStocks() {
+        return current.previous;
+    }
+//returns the quotes of getStocks() ordered by high price, for pages, ranks and price ranges
+    public PriceIndex getPriceIndex() {
+        return current.byPrice;
+    }
+//returns the best-trade tracker of a ticker (null when it has no history);
+//the first call reads the ticker's history once, every later call is an O(1) lookup without locking
+    public BestTradeTracker getBestTradeTracker(String ticker) {
+        // trackers are keyed by the upper-case ticker, the same way the tick store matches tickers
+        String key = ticker.toUpperCase();
+        BestTradeTracker tracker = trackers.get(key);
+        if (tracker != null)
+            return tracker;
+
+        // seeding holds the market lock, so no day is appended between reading the history and
+        // registering the tracker (advanceDay would otherwise miss it or feed it twice)
+        synchronized (this) {
+            tracker = trackers.get(key);
+            if (tracker == null) {
+                tracker = DataManager.loadBestTradeTracker(key);
+                if (tracker == null)
+                    return null;
+                trackers.put(key, tracker);
+            }
+            return tracker;
+        }
+    }
+//true once a day has been simulated, i.e. daily changes are available
+    public boolean hasPreviousDay() {
+        Version v = current;
+        return v.previous != v.quotes;
+    }
+//returns the prefix index over tickers and company names
+    public SymbolIndex getSymbolIndex() {
+        return symbols;
+    }
+//returns the date of the latest quotes as an epoch day
+    public int getCurrentDate() {
+        return current.date;
+    }
+//simulates the next trading day for every stock, O(tickers) with no file reads
+//the new quotes become visible to readers in one step, and only once they are on disk
+    public synchronized boolean advanceDay() {
+        if (stockList.isEmpty()) {
+            System.err.println("No stocks found.");
+            return false;
+        }
+
+        Version before = current;
+        int nextDate = DataManager.nextDate(before.date);
+        PersistentHashMap<String, Stock> quotes = before.quotes;
+        PriceIndex byPrice = before.byPrice;
+        CustomArrayList<Stock> nextList = new CustomArrayList<>(stockList.size());
+
+        for (int i = 0; i < stockList.size(); i++) {
+            Stock s = stockList.get(i);
+
+            double[] np = PriceSimulator.simulateNextDayPrices(
+                    s.getHighPrice(),
+                    s.getLowPrice());
+
+            // safety: no stock falls to zero or below
+            np[0] = Math.max(np[0], 1);
+            np[1] = Math.max(np[1], 1);
+
+            // rounded to cents, exactly what the CSV holds
+            Stock next = new Stock(s.getName(), s.getTicker(), nextDate,
+                    Math.round(np[0] * 100) / 100.0,
+                    Math.round(np[1] * 100) / 100.0);
+            nextList.add(next);
+            quotes = quotes.put(next.getTicker(), next);
+            byPrice = byPrice.replace(s, next);
+        }
+
+        if (!DataManager.appendDay(nextList)) {
+            return false;
+        }
+
+        // the new bars are on disk: O(1) update of every tracker that is already seeded
+        for (int i = 0; i < nextList.size(); i++) {
+            Stock next = nextList.get(i);
+            BestTradeTracker tracker = trackers.get(next.getTicker().toUpperCase());
+            if (tracker != null)
+                tracker.add(next.getEpochDay(), next.getHighPrice(), next.getLowPrice());
+        }
+
+        stockList = nextList;
+        current = new Version(quotes, before.quotes, byPrice, nextDate);
+        DataManager.saveSnapshot(stockList, nextDate);
+        System.out.println("Market advanced to " + MarketDate.format(nextDate));
+        return true;
+    }
+}
@@ -2,8 +2,10 @@ package stockmarket.services;
 
 import stockmarket.models.Portfolio;
 import stockmarket.models.Stock;
-import stockmarket.datastructures.CustomHashMap;
+import stockmarket.datastructures.MapView;
 import stockmarket.datastructures.CustomArrayList;
+import stockmarket.datastructures.ObjectDoubleMap;
+import stockmarket.datastructures.ObjectIntMap;
 
 public class PortfolioManager {
     private Portfolio portfolio;
@@ -54,15 +56,15 @@ public class PortfolioManager {
         return success;
     }
 // displays the current portfolio of user
-    public void displayPortfolio(CustomHashMap<String, Stock> currentPrices) {
+    public void displayPortfolio(MapView<String, Stock> currentPrices) {
         System.out.println("\n" + "=".repeat(80));
         System.out.println("                              YOUR PORTFOLIO");
         System.out.println("=".repeat(80));
 // displays current cash balance of user
         System.out.printf("\nCash Balance: $%.2f\n\n", portfolio.getCashBalance());
 // retrieves the stock holdings and average buy prices from portfolio
-        CustomHashMap<String, Integer> holdings = portfolio.getHoldings();
-        CustomHashMap<String, Double> avgPrices = portfolio.getAvgBuyPrice();
+        ObjectIntMap<String> holdings = portfolio.getHoldings();
+        ObjectDoubleMap<String> avgPrices = portfolio.getAvgBuyPrice();
 
         if (holdings.isEmpty()) {
             System.out.println("No stock holdings.");
@@ -78,8 +80,8 @@ public class PortfolioManager {
 // loops through stocks to find profit, loss
             for (int i = 0; i < tickers.size(); i++) {
                 String ticker = tickers.get(i);
-                Integer qty = holdings.get(ticker);
-                Double avgBuy = avgPrices.get(ticker);
+                int qty = holdings.get(ticker);
+                double avgBuy = avgPrices.get(ticker);
                 Stock stock = currentPrices.get(ticker);
 
                 if (stock != null) {
@@ -1,13 +1,17 @@
 package stockmarket.services;
 
 import stockmarket.models.Stock;
-import stockmarket.datastructures.CustomHashMap;
+import stockmarket.datastructures.MapView;
 import stockmarket.datastructures.CustomArrayList;
-import stockmarket.algorithms.StockSorter;
+import stockmarket.datastructures.PriceIndex;
+import stockmarket.algorithms.PriceKey;
+import stockmarket.algorithms.TopK;
+
+import java.util.function.ToDoubleFunction;
 
 public class StockService {
 //for displaying all avaliable stocks currently in the system
-    public static void displayAllStocks(CustomHashMap<String, Stock> stocks) {
+    public static void displayAllStocks(MapView<String, Stock> stocks) {
         System.out.println("\n" + "=".repeat(80));
         System.out.println("                           ALL AVAILABLE STOCKS");
         System.out.println("=".repeat(80));
@@ -27,18 +31,72 @@ public class StockService {
         System.out.println("=".repeat(80));
     }
 
-    public static void displayStocksSortedByPrice(CustomHashMap<String, Stock> stockMap, boolean ascending) {
-        CustomArrayList<Stock> stocks = stockMap.values();
-        StockSorter.sortByPrice(stocks, ascending); //displays stocks pased on ascending order of price
+//displays the first page of stocks ordered by high price, read straight from the price index
+    public static void displayStocksSortedByPrice(PriceIndex index, boolean ascending, int limit) {
+        CustomArrayList<Stock> stocks = index.page(0, limit, ascending);
 
         System.out.println("\n" + "=".repeat(80));
         System.out.println(
                 "                    STOCKS SORTED BY PRICE " + (ascending ? "(LOW TO HIGH)" : "(HIGH TO LOW)"));
         System.out.println("=".repeat(80));
-// displays each stock after sorting based on price
+// displays each stock of the page in order
         for (int i = 0; i < stocks.size(); i++) {
             System.out.println(stocks.get(i));
         }
+        printPageFooter(stocks.size(), index.size());
+    }
+//displays every stock whose high price lies in [minPrice, maxPrice], cheapest first
+    public static void displayStocksInPriceRange(PriceIndex index, double minPrice, double maxPrice, int limit) {
+        int total = index.countInRange(minPrice, maxPrice);
+
+        System.out.println("\n" + "=".repeat(80));
+        System.out.printf("                    STOCKS PRICED $%.2f - $%.2f\n", minPrice, maxPrice);
+        System.out.println("=".repeat(80));
+        if (total == 0) {
+            System.out.println("No stocks in this price range.");
+            System.out.println("=".repeat(80));
+            return;
+        }
+        // the range starts right after every stock priced below minPrice
+        int first = index.countBelow(minPrice, false);
+        CustomArrayList<Stock> stocks = index.page(first, Math.min(total, limit), true);
+        for (int i = 0; i < stocks.size(); i++) {
+            System.out.println(stocks.get(i));
+        }
+        printPageFooter(stocks.size(), total);
+    }
+//displays where one stock stands among all stocks by high price
+    public static void displayPriceRank(PriceIndex index, Stock stock) {
+        int rank = index.rankOf(stock);
+        if (rank < 0) {
+            System.out.println("Stock not found!");
+            return;
+        }
+        System.out.println("\n" + stock);
+        System.out.printf("Price rank: #%d of %d (most expensive = #1)\n", index.size() - rank, index.size());
+    }
+//displays the biggest daily gainers (or losers) by percent change of the average price
+    public static void displayTopMovers(MapView<String, Stock> stockMap, MapView<String, Stock> previous,
+            boolean gainers, int limit) {
+        ToDoubleFunction<Stock> change = PriceKey.dailyChange(previous);
+        CustomArrayList<Stock> stocks = gainers
+                ? TopK.highest(stockMap, limit, change)
+                : TopK.lowest(stockMap, limit, change);
+
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("                    TOP DAILY " + (gainers ? "GAINERS" : "LOSERS"));
+        System.out.println("=".repeat(80));
+        for (int i = 0; i < stocks.size(); i++) {
+            Stock stock = stocks.get(i);
+            System.out.printf("%s %+7.2f%%\n", stock, change.applyAsDouble(stock));
+        }
+        printPageFooter(stocks.size(), stockMap.size());
+    }
+
+    private static void printPageFooter(int shown, int total) {
+        if (shown < total) {
+            System.out.println("(showing " + shown + " of " + total + " stocks)");
+        }
         System.out.println("=".repeat(80));
     }
-}
\ No newline at end of file
+}
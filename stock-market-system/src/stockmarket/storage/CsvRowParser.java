@@ -0,0 +1,280 @@
+package stockmarket.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+//byte-level parser for "Name,Ticker,dd-MM-yyyy,High,Low" rows
+//lines are parsed in place inside one reusable buffer: no split(), no substrings,
+//names and tickers are interned through a SymbolTable and dates are decoded straight to epoch days
+public class CsvRowParser {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+    private static final int[] DAYS_IN_MONTH = { 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+
+    private final SymbolTable symbols;
+    private InputStream in;
+    private byte[] buf;
+    private int pos;
+    private int limit;
+    private boolean eof;
+
+    // fields of the last parsed row
+    private String name;
+    private String ticker;
+    private int epochDay;
+    private double high;
+    private double low;
+
+    //parser for lines handed in by the caller
+    public CsvRowParser() {
+        this.symbols = new SymbolTable();
+    }
+
+    //parser that pulls lines from a stream
+    public CsvRowParser(InputStream in) {
+        this();
+        this.in = in;
+        this.buf = new byte[BUFFER_SIZE];
+    }
+
+    // --------------------------------------------------------
+    // STREAMING: ADVANCE TO THE NEXT VALID ROW
+    // --------------------------------------------------------
+    public boolean next() throws IOException {
+        while (true) {
+            int lineEnd = findLineEnd();
+            if (lineEnd < 0)
+                return false;
+
+            int start = pos;
+            pos = Math.min(lineEnd + 1, limit);
+
+            if (isBlank(buf, start, lineEnd))
+                continue;
+            if (parse(buf, start, lineEnd))
+                return true;
+
+            System.err.println("Skipping bad CSV line: "
+                    + new String(buf, start, lineEnd - start, StandardCharsets.UTF_8).trim());
+        }
+    }
+
+    //skips one line, used for the header
+    public void skipLine() throws IOException {
+        int lineEnd = findLineEnd();
+        if (lineEnd >= 0)
+            pos = Math.min(lineEnd + 1, limit);
+    }
+
+    //returns the index of the '\n' ending the current line (or limit at end of input), -1 when done
+    private int findLineEnd() throws IOException {
+        int scanFrom = pos;
+        while (true) {
+            for (int i = scanFrom; i < limit; i++) {
+                if (buf[i] == '\n')
+                    return i;
+            }
+            if (eof) {
+                return pos < limit ? limit : -1;
+            }
+            scanFrom = limit - pos;
+            fill();
+        }
+    }
+
+    //moves the unread tail to the front and reads more bytes, growing only for huge lines
+    private void fill() throws IOException {
+        int remaining = limit - pos;
+        if (remaining == buf.length) {
+            byte[] grown = new byte[buf.length * 2];
+            System.arraycopy(buf, pos, grown, 0, remaining);
+            buf = grown;
+        } else if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, remaining);
+        }
+        pos = 0;
+        limit = remaining;
+
+        int n = in.read(buf, limit, buf.length - limit);
+        if (n < 0) {
+            eof = true;
+        } else {
+            limit += n;
+        }
+    }
+
+    // --------------------------------------------------------
+    // PARSE ONE LINE FROM data[from, to)
+    // --------------------------------------------------------
+    public boolean parse(byte[] data, int from, int to) {
+        int c1 = indexOf(data, ',', from, to);
+        if (c1 < 0)
+            return false;
+        int c2 = indexOf(data, ',', c1 + 1, to);
+        if (c2 < 0)
+            return false;
+        int c3 = indexOf(data, ',', c2 + 1, to);
+        if (c3 < 0)
+            return false;
+        int c4 = indexOf(data, ',', c3 + 1, to);
+        if (c4 < 0)
+            return false;
+
+        // any further fields are ignored, as before
+        int c5 = indexOf(data, ',', c4 + 1, to);
+        int lowEnd = c5 < 0 ? to : c5;
+
+        int day = parseDate(data, trimStart(data, c2 + 1, c3), trimEnd(data, c2 + 1, c3));
+        double h = parsePrice(data, trimStart(data, c3 + 1, c4), trimEnd(data, c3 + 1, c4));
+        double l = parsePrice(data, trimStart(data, c4 + 1, lowEnd), trimEnd(data, c4 + 1, lowEnd));
+        if (day == Integer.MIN_VALUE || Double.isNaN(h) || Double.isNaN(l))
+            return false;
+
+        name = symbols.intern(data, trimStart(data, from, c1), trimEnd(data, from, c1));
+        ticker = symbols.intern(data, trimStart(data, c1 + 1, c2), trimEnd(data, c1 + 1, c2));
+        epochDay = day;
+        high = h;
+        low = l;
+        return true;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public int getEpochDay() {
+        return epochDay;
+    }
+
+    public double getHighPrice() {
+        return high;
+    }
+
+    public double getLowPrice() {
+        return low;
+    }
+
+    // --------------------------------------------------------
+    // FIELD DECODERS
+    // --------------------------------------------------------
+
+    //decimal price to double; exact for up to 15 digits, otherwise falls back to Double.parseDouble
+    static double parsePrice(byte[] d, int from, int to) {
+        if (from >= to)
+            return Double.NaN;
+
+        int i = from;
+        boolean negative = false;
+        if (d[i] == '-' || d[i] == '+') {
+            negative = d[i] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean dot = false;
+
+        for (; i < to; i++) {
+            byte b = d[i];
+            if (b >= '0' && b <= '9') {
+                if (digits == 15)
+                    return slowParse(d, from, to);
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (dot)
+                    scale++;
+            } else if (b == '.' && !dot) {
+                dot = true;
+            } else {
+                return slowParse(d, from, to);
+            }
+        }
+
+        if (digits == 0)
+            return Double.NaN;
+
+        // both operands are exact doubles, so the division is correctly rounded
+        double value = scale == 0 ? mantissa : mantissa / POW10[scale];
+        return negative ? -value : value;
+    }
+
+    private static double slowParse(byte[] d, int from, int to) {
+        try {
+            return Double.parseDouble(new String(d, from, to - from, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    //dd-MM-yyyy to epoch day, Integer.MIN_VALUE when malformed
+    static int parseDate(byte[] d, int from, int to) {
+        if (to - from != 10 || d[from + 2] != '-' || d[from + 5] != '-')
+            return Integer.MIN_VALUE;
+
+        int day = digits(d, from, 2);
+        int month = digits(d, from + 3, 2);
+        int year = digits(d, from + 6, 4);
+        if (day < 1 || month < 1 || month > 12 || year < 0)
+            return Integer.MIN_VALUE;
+
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        int maxDay = month == 2 && leap ? 29 : DAYS_IN_MONTH[month - 1];
+        if (day > maxDay)
+            return Integer.MIN_VALUE;
+
+        return epochDay(year, month, day);
+    }
+
+    //days since 1970-01-01 for a proleptic Gregorian date (same result as LocalDate.toEpochDay)
+    static int epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int digits(byte[] d, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = d[i] - '0';
+            if (digit < 0 || digit > 9)
+                return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static int indexOf(byte[] d, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (d[i] == c)
+                return i;
+        }
+        return -1;
+    }
+
+    private static int trimStart(byte[] d, int from, int to) {
+        while (from < to && (d[from] & 0xFF) <= ' ')
+            from++;
+        return from;
+    }
+
+    private static int trimEnd(byte[] d, int from, int to) {
+        while (to > from && (d[to - 1] & 0xFF) <= ' ')
+            to--;
+        return to;
+    }
+
+    private static boolean isBlank(byte[] d, int from, int to) {
+        return trimStart(d, from, to) == to;
+    }
+}
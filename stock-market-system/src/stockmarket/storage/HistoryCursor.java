@@ -0,0 +1,106 @@
+package stockmarket.storage;
+
+//streams the bars of one ticker straight from the tick store, oldest first
+//nothing is materialized: callers can stop at any point, and rows outside [fromDay, toDay] are skipped
+//(whole column blocks before fromDay are skipped without reading their rows)
+public class HistoryCursor {
+    private final TickStore store;
+    private final String name;
+    private final String ticker;
+    private final int[] blocks;
+    private final int fromDay;
+    private final int toDay;
+
+    private int blockIndex = -1;
+    private int block;
+    private int row;
+    private int rows;
+    private HistorySegment.Decoder decoder;
+    private boolean done;
+
+    private int date;
+    private double high;
+    private double low;
+
+    HistoryCursor(TickStore store, String name, String ticker, int[] blocks, int fromDay, int toDay) {
+        this.store = store;
+        this.name = name;
+        this.ticker = ticker;
+        this.blocks = blocks;
+        this.fromDay = fromDay;
+        this.toDay = toDay;
+    }
+
+    //moves to the next bar in range; false once the history or the range is exhausted
+    public boolean next() {
+        while (!done) {
+            if (row == rows) {
+                if (!nextBlock()) {
+                    done = true;
+                    return false;
+                }
+                continue;
+            }
+
+            if (decoder != null) {
+                decoder.next(store.buffer());
+                date = decoder.date();
+                high = decoder.high();
+                low = decoder.low();
+            } else {
+                date = store.columnDate(block, row);
+                high = store.columnHigh(block, row);
+                low = store.columnLow(block, row);
+            }
+            row++;
+
+            if (date < fromDay)
+                continue;
+            if (date > toDay) {
+                done = true;
+                return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private boolean nextBlock() {
+        while (++blockIndex < blocks.length) {
+            block = blocks[blockIndex];
+            rows = store.blockRows(block);
+            row = 0;
+
+            if (store.isSegment(block)) {
+                decoder = store.segmentDecoder(block);
+                return true;
+            }
+
+            decoder = null;
+            if (rows > 0 && store.columnDate(block, rows - 1) < fromDay)
+                continue;
+            return true;
+        }
+        return false;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTicker() {
+        return ticker;
+    }
+
+    public int date() {
+        return date;
+    }
+
+    public double high() {
+        return high;
+    }
+
+    public double low() {
+        return low;
+    }
+}
@@ -0,0 +1,130 @@
+package stockmarket.storage;
+
+import java.nio.ByteBuffer;
+
+//compact encoding for the closed-out history of one ticker
+//name and ticker live once in the symbol record (the dictionary), the rows here are
+//delta-encoded epoch days and delta-encoded integer cents, all written as zigzag varints
+class HistorySegment {
+
+    //true when a price survives the round trip through whole cents
+    static boolean isWholeCents(double price) {
+        return Math.round(price * 100) / 100.0 == price;
+    }
+
+    // --------------------------------------------------------
+    // ENCODER
+    // --------------------------------------------------------
+    static class Encoder {
+        private byte[] out = new byte[256];
+        private int length;
+        private int rows;
+        private int prevDate;
+        private long prevHigh;
+        private long prevLow;
+
+        //adds one row; false when a price is not in whole cents and cannot be stored here
+        boolean add(int date, double high, double low) {
+            if (!isWholeCents(high) || !isWholeCents(low))
+                return false;
+
+            long highCents = Math.round(high * 100);
+            long lowCents = Math.round(low * 100);
+
+            writeVarLong(zigzag(date - prevDate));
+            writeVarLong(zigzag(highCents - prevHigh));
+            writeVarLong(zigzag(lowCents - prevLow));
+
+            prevDate = date;
+            prevHigh = highCents;
+            prevLow = lowCents;
+            rows++;
+            return true;
+        }
+
+        int rows() {
+            return rows;
+        }
+
+        int length() {
+            return length;
+        }
+
+        byte[] bytes() {
+            return out;
+        }
+
+        private void writeVarLong(long v) {
+            if (length + 10 > out.length) {
+                byte[] grown = new byte[out.length * 2];
+                System.arraycopy(out, 0, grown, 0, length);
+                out = grown;
+            }
+            while ((v & ~0x7FL) != 0) {
+                out[length++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            out[length++] = (byte) v;
+        }
+    }
+
+    // --------------------------------------------------------
+    // DECODER (STRAIGHT FROM THE MAPPED FILE, ONE ROW AT A TIME)
+    // --------------------------------------------------------
+    static class Decoder {
+        private int pos;
+        private int date;
+        private long high;
+        private long low;
+
+        Decoder(int pos) {
+            this.pos = pos;
+        }
+
+        void next(ByteBuffer buf) {
+            date += (int) unzigzag(readVarLong(buf));
+            high += unzigzag(readVarLong(buf));
+            low += unzigzag(readVarLong(buf));
+        }
+
+        int date() {
+            return date;
+        }
+
+        double high() {
+            return high / 100.0;
+        }
+
+        double low() {
+            return low / 100.0;
+        }
+
+        private long readVarLong(ByteBuffer buf) {
+            long v = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buf.get(pos++);
+                v |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return v;
+        }
+    }
+
+    static void decode(ByteBuffer buf, int pos, int rows, TickStore.RowVisitor visitor) {
+        Decoder decoder = new Decoder(pos);
+        for (int r = 0; r < rows; r++) {
+            decoder.next(buf);
+            visitor.row(decoder.date(), decoder.high(), decoder.low());
+        }
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
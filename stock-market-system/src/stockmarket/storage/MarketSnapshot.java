@@ -0,0 +1,190 @@
+package stockmarket.storage;
+
+import stockmarket.datastructures.CustomArrayList;
+import stockmarket.datastructures.DoubleArrayList;
+import stockmarket.datastructures.IntArrayList;
+import stockmarket.datastructures.ObjectIntMap;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+//checkpoint of the latest quote per ticker plus the current market date
+//it remembers how much of the CSV it covers, so startup only has to replay rows written after it
+public class MarketSnapshot {
+    private static final int MAGIC = 0x534E4150; // "SNAP"
+    private static final int VERSION = 1;
+    private static final int CHECK_BYTES = 4096;
+
+    private int marketDate = Integer.MIN_VALUE;
+    private long sourceLength;
+    private long sourceCrc;
+
+    // one column per field, slot i of every column belongs to the same ticker
+    private CustomArrayList<String> names = new CustomArrayList<>(16);
+    private CustomArrayList<String> tickers = new CustomArrayList<>(16);
+    private IntArrayList dates = new IntArrayList(16);
+    private DoubleArrayList highs = new DoubleArrayList(16);
+    private DoubleArrayList lows = new DoubleArrayList(16);
+    private ObjectIntMap<String> slots = new ObjectIntMap<>();
+
+    // --------------------------------------------------------
+    // CONTENT
+    // --------------------------------------------------------
+
+    //sets the quote for a ticker, keeping the newest date per ticker
+    public void put(String name, String ticker, int epochDay, double high, double low) {
+        int slot = slots.get(ticker, -1);
+        if (slot < 0) {
+            slots.put(ticker, dates.size());
+            names.add(name);
+            tickers.add(ticker);
+            dates.add(epochDay);
+            highs.add(high);
+            lows.add(low);
+        } else if (epochDay >= dates.get(slot)) {
+            names.set(slot, name);
+            tickers.set(slot, ticker);
+            dates.set(slot, epochDay);
+            highs.set(slot, high);
+            lows.set(slot, low);
+        } else {
+            return;
+        }
+
+        if (epochDay > marketDate)
+            marketDate = epochDay;
+    }
+
+    public int size() {
+        return dates.size();
+    }
+
+    public String name(int i) {
+        return names.get(i);
+    }
+
+    public String ticker(int i) {
+        return tickers.get(i);
+    }
+
+    public int date(int i) {
+        return dates.get(i);
+    }
+
+    public double high(int i) {
+        return highs.get(i);
+    }
+
+    public double low(int i) {
+        return lows.get(i);
+    }
+
+    public int getMarketDate() {
+        return marketDate;
+    }
+
+    public void setMarketDate(int marketDate) {
+        this.marketDate = marketDate;
+    }
+
+    // --------------------------------------------------------
+    // CSV COVERAGE
+    // --------------------------------------------------------
+
+    //records that the snapshot reflects the first length bytes of csv
+    public void coverSource(File csv) throws IOException {
+        sourceLength = csv.length();
+        sourceCrc = checksum(csv, sourceLength);
+    }
+
+    //replays rows appended to the CSV after the snapshot; false when the CSV was rewritten instead
+    public boolean catchUp(File csv) throws IOException {
+        if (csv.length() < sourceLength || checksum(csv, sourceLength) != sourceCrc)
+            return false;
+
+        if (csv.length() > sourceLength) {
+            try (FileInputStream in = new FileInputStream(csv)) {
+                in.getChannel().position(sourceLength);
+                CsvRowParser parser = new CsvRowParser(new BufferedInputStream(in));
+                while (parser.next()) {
+                    put(parser.getName(), parser.getTicker(), parser.getEpochDay(),
+                            parser.getHighPrice(), parser.getLowPrice());
+                }
+            }
+            coverSource(csv);
+        }
+        return true;
+    }
+
+    //CRC of the last few KB the snapshot covers, enough to notice a replaced or edited CSV
+    private static long checksum(File csv, long length) throws IOException {
+        int n = (int) Math.min(CHECK_BYTES, length);
+        byte[] tail = new byte[n];
+        try (RandomAccessFile raf = new RandomAccessFile(csv, "r")) {
+            raf.seek(length - n);
+            raf.readFully(tail);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(tail, 0, n);
+        return crc.getValue();
+    }
+
+    // --------------------------------------------------------
+    // FILE FORMAT
+    // --------------------------------------------------------
+
+    //reads a snapshot, or returns null when it is missing or unreadable
+    public static MarketSnapshot read(File file) {
+        if (!file.exists())
+            return null;
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                return null;
+
+            MarketSnapshot snap = new MarketSnapshot();
+            snap.sourceLength = in.readLong();
+            snap.sourceCrc = in.readLong();
+            int marketDate = in.readInt();
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                snap.put(in.readUTF(), in.readUTF(), in.readInt(), in.readDouble(), in.readDouble());
+            }
+            snap.marketDate = marketDate;
+            return snap;
+
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    //writes to a temp file and renames it, so a crash never leaves half a snapshot behind
+    public void write(File file) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sourceLength);
+            out.writeLong(sourceCrc);
+            out.writeInt(marketDate);
+
+            out.writeInt(size());
+            for (int i = 0; i < size(); i++) {
+                out.writeUTF(names.get(i));
+                out.writeUTF(tickers.get(i));
+                out.writeInt(dates.get(i));
+                out.writeDouble(highs.get(i));
+                out.writeDouble(lows.get(i));
+            }
+        }
+
+        Files.move(tmp.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,203 @@
+package stockmarket.storage;
+
+import stockmarket.datastructures.CustomArrayList;
+import stockmarket.datastructures.OpenHashMap;
+import stockmarket.datastructures.PriceSeries;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+//loads a large market CSV on the fork-join pool
+//the file is cut into chunks at newline boundaries, every chunk is parsed by its own CsvRowParser,
+//and the per-chunk results are merged pairwise in file order, so the outcome matches a sequential read
+public class ParallelCsvLoader {
+    private static final int MIN_CHUNK = 1 << 20;
+    private static final int MAX_CHUNK = 32 << 20;
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    //merged result: tickers in order of first appearance, each with its rows in file order
+    //tickers match case-insensitively like in TickStore; a series keeps the spelling it was first seen with
+    public static class Result {
+        public final CustomArrayList<PriceSeries> tickers;
+        private final OpenHashMap<String, PriceSeries> byTicker;
+        public long rows;
+        public long badLines;
+
+        Result() {
+            this.tickers = new CustomArrayList<>();
+            this.byTicker = new OpenHashMap<>();
+        }
+
+        void add(String name, String ticker, int date, double high, double low) {
+            // toUpperCase returns the same string when it is already upper case, so no garbage per row
+            String key = ticker.toUpperCase();
+            PriceSeries c = byTicker.get(key);
+            if (c == null) {
+                c = new PriceSeries(name, ticker);
+                tickers.add(c);
+                byTicker.put(key, c);
+            }
+            c.append(date, high, low);
+            rows++;
+        }
+
+        //appends everything in later (the chunk after this one) to this result
+        void merge(Result later) {
+            for (int i = 0; i < later.tickers.size(); i++) {
+                PriceSeries c = later.tickers.get(i);
+                String key = c.getTicker().toUpperCase();
+                PriceSeries mine = byTicker.get(key);
+                if (mine == null) {
+                    tickers.add(c);
+                    byTicker.put(key, c);
+                } else {
+                    mine.appendAll(c);
+                }
+            }
+            rows += later.rows;
+            badLines += later.badLines;
+        }
+
+        public PriceSeries get(String ticker) {
+            return byTicker.get(ticker.toUpperCase());
+        }
+    }
+
+    // --------------------------------------------------------
+    // LOAD A CSV (WITH HEADER LINE) IN PARALLEL
+    // --------------------------------------------------------
+    public static Result load(File csv) throws IOException {
+        return load(csv, ForkJoinPool.commonPool());
+    }
+
+    public static Result load(File csv, ForkJoinPool pool) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(csv, "r")) {
+            FileChannel channel = raf.getChannel();
+            long size = channel.size();
+
+            long target = size / ((long) pool.getParallelism() * CHUNKS_PER_THREAD);
+            long chunkSize = Math.max(MIN_CHUNK, Math.min(MAX_CHUNK, target));
+            int chunkCount = (int) Math.max(1, (size + chunkSize - 1) / chunkSize);
+
+            // chunk i covers [bounds[i], bounds[i + 1]), every boundary is the start of a line
+            long[] bounds = new long[chunkCount + 1];
+            bounds[0] = lineAfter(channel, 0, size); // skip the header
+            for (int i = 1; i < chunkCount; i++) {
+                bounds[i] = Math.max(bounds[i - 1], lineAfter(channel, i * chunkSize, size));
+            }
+            bounds[chunkCount] = size;
+
+            return pool.invoke(new ChunkTask(channel, bounds, 0, chunkCount));
+        }
+    }
+
+    //parses chunks [from, to), splitting in half until a single chunk is left
+    private static class ChunkTask extends RecursiveTask<Result> {
+        private static final long serialVersionUID = 1L;
+
+        private final FileChannel channel;
+        private final long[] bounds;
+        private final int from;
+        private final int to;
+
+        ChunkTask(FileChannel channel, long[] bounds, int from, int to) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from == 1) {
+                return parseChunk(channel, bounds[from], bounds[to]);
+            }
+
+            int mid = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(channel, bounds, from, mid);
+            ChunkTask right = new ChunkTask(channel, bounds, mid, to);
+            right.fork();
+            Result result = left.compute();
+            result.merge(right.join());
+            return result;
+        }
+    }
+
+    private static Result parseChunk(FileChannel channel, long start, long end) {
+        Result result = new Result();
+        if (end <= start)
+            return result;
+
+        byte[] data = new byte[(int) (end - start)];
+        try {
+            readFully(channel, data, start);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading CSV chunk at " + start, e);
+        }
+
+        CsvRowParser parser = new CsvRowParser();
+        int lineStart = 0;
+        while (lineStart < data.length) {
+            int lineEnd = lineStart;
+            while (lineEnd < data.length && data[lineEnd] != '\n')
+                lineEnd++;
+
+            if (parser.parse(data, lineStart, lineEnd)) {
+                result.add(parser.getName(), parser.getTicker(), parser.getEpochDay(),
+                        parser.getHighPrice(), parser.getLowPrice());
+            } else if (!isBlank(data, lineStart, lineEnd)) {
+                result.badLines++;
+            }
+            lineStart = lineEnd + 1;
+        }
+        return result;
+    }
+
+    // --------------------------------------------------------
+    // HELPERS
+    // --------------------------------------------------------
+
+    //first line start at or after pos (pos itself only when it follows a newline)
+    private static long lineAfter(FileChannel channel, long pos, long size) throws IOException {
+        // scanning from pos - 1 keeps pos itself when it already starts a line;
+        // at 0 this skips the header
+        if (pos > 0)
+            pos--;
+
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        while (pos < size) {
+            probe.clear();
+            int n = channel.read(probe, pos);
+            if (n <= 0)
+                break;
+            for (int i = 0; i < n; i++) {
+                if (probe.get(i) == '\n')
+                    return pos + i + 1;
+            }
+            pos += n;
+        }
+        return size;
+    }
+
+    private static void readFully(FileChannel channel, byte[] data, long position) throws IOException {
+        ByteBuffer target = ByteBuffer.wrap(data);
+        while (target.hasRemaining()) {
+            int n = channel.read(target, position + target.position());
+            if (n < 0)
+                throw new IOException("Unexpected end of file");
+        }
+    }
+
+    private static boolean isBlank(byte[] d, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if ((d[i] & 0xFF) > ' ')
+                return false;
+        }
+        return true;
+    }
+}
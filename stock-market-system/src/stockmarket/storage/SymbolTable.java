@@ -0,0 +1,100 @@
+package stockmarket.storage;
+
+import java.nio.charset.StandardCharsets;
+
+//interns byte slices (ticker and company names) into shared String instances
+//a lookup for a symbol that was seen before allocates nothing
+public class SymbolTable {
+    private byte[][] keys;
+    private String[] values;
+    private int[] hashes;
+    private int size;
+    private int mask;
+
+    public SymbolTable() {
+        this(64);
+    }
+
+    public SymbolTable(int expected) {
+        int capacity = 16;
+        while (capacity < expected * 2) {
+            capacity <<= 1;
+        }
+        keys = new byte[capacity][];
+        values = new String[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    //returns the String for data[from, to), creating it only the first time it is seen
+    public String intern(byte[] data, int from, int to) {
+        int h = hash(data, from, to);
+        int i = h & mask;
+
+        while (keys[i] != null) {
+            if (hashes[i] == h && sameBytes(keys[i], data, from, to)) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+
+        byte[] key = new byte[to - from];
+        System.arraycopy(data, from, key, 0, key.length);
+        String value = new String(key, StandardCharsets.UTF_8);
+
+        keys[i] = key;
+        values[i] = value;
+        hashes[i] = h;
+        size++;
+
+        if (size * 2 > keys.length) {
+            grow();
+        }
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        byte[][] oldKeys = keys;
+        String[] oldValues = values;
+        int[] oldHashes = hashes;
+
+        keys = new byte[oldKeys.length * 2][];
+        values = new String[oldKeys.length * 2];
+        hashes = new int[oldKeys.length * 2];
+        mask = keys.length - 1;
+
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == null)
+                continue;
+            int i = oldHashes[j] & mask;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+            hashes[i] = oldHashes[j];
+        }
+    }
+
+    private static int hash(byte[] data, int from, int to) {
+        int h = 1;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + data[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean sameBytes(byte[] key, byte[] data, int from, int to) {
+        if (key.length != to - from)
+            return false;
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != data[from + i])
+                return false;
+        }
+        return true;
+    }
+}
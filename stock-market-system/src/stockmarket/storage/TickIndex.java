@@ -0,0 +1,110 @@
+package stockmarket.storage;
+
+import stockmarket.datastructures.CustomArrayList;
+import stockmarket.datastructures.IntArrayList;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+//persistent side index for a TickStore
+//maps every ticker to its symbol record, the offsets of its blocks and its latest row,
+//and lists the free blocks, so opening the store never has to walk the data file
+class TickIndex {
+    private static final int MAGIC = 0x54494458; // "TIDX"
+    private static final int VERSION = 2;
+
+    // --------------------------------------------------------
+    // LOAD INDEX INTO STORE (FALSE IF MISSING OR STALE)
+    // --------------------------------------------------------
+    static boolean read(File indexFile, TickStore store) {
+        if (!indexFile.exists())
+            return false;
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                return false;
+
+            // written for a different state of the data file
+            if (in.readLong() != store.end() || in.readLong() != store.totalRows())
+                return false;
+
+            int tickers = in.readInt();
+            CustomArrayList<TickStore.TickerEntry> loaded = new CustomArrayList<>(Math.max(tickers, 1));
+
+            for (int id = 0; id < tickers; id++) {
+                TickStore.TickerEntry e = new TickStore.TickerEntry(id, in.readUTF(), in.readUTF());
+                e.symbol = in.readInt();
+                e.rows = in.readInt();
+                e.lastDate = in.readInt();
+                e.lastHigh = in.readDouble();
+                e.lastLow = in.readDouble();
+
+                int blocks = in.readInt();
+                for (int b = 0; b < blocks; b++) {
+                    e.addBlock(in.readInt());
+                }
+                loaded.add(e);
+            }
+
+            int free = in.readInt();
+            IntArrayList freeBlocks = new IntArrayList(Math.max(free, 1));
+            for (int f = 0; f < free; f++) {
+                freeBlocks.add(in.readInt());
+            }
+
+            for (int i = 0; i < loaded.size(); i++) {
+                store.addEntry(loaded.get(i));
+            }
+            store.freeBlocks().addAll(freeBlocks);
+            return true;
+
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // --------------------------------------------------------
+    // WRITE INDEX ATOMICALLY (TEMP FILE + RENAME)
+    // --------------------------------------------------------
+    static void write(File indexFile, TickStore store) throws IOException {
+        File tmp = new File(indexFile.getPath() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(store.end());
+            out.writeLong(store.totalRows());
+
+            CustomArrayList<TickStore.TickerEntry> entries = store.entries();
+            out.writeInt(entries.size());
+
+            for (int i = 0; i < entries.size(); i++) {
+                TickStore.TickerEntry e = entries.get(i);
+                out.writeUTF(e.name);
+                out.writeUTF(e.ticker);
+                out.writeInt(e.symbol);
+                out.writeInt(e.rows);
+                out.writeInt(e.lastDate);
+                out.writeDouble(e.lastHigh);
+                out.writeDouble(e.lastLow);
+
+                out.writeInt(e.blocks.size());
+                for (int b = 0; b < e.blocks.size(); b++) {
+                    out.writeInt(e.blocks.get(b));
+                }
+            }
+
+            IntArrayList freeBlocks = store.freeBlocks();
+            out.writeInt(freeBlocks.size());
+            for (int f = 0; f < freeBlocks.size(); f++) {
+                out.writeInt(freeBlocks.get(f));
+            }
+        }
+
+        Files.move(tmp.toPath(), indexFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,727 @@
+package stockmarket.storage;
+
+import stockmarket.datastructures.CustomArrayList;
+import stockmarket.datastructures.IntArrayList;
+import stockmarket.datastructures.OffHeapPriceSeries;
+import stockmarket.datastructures.OpenHashMap;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+//binary columnar store for the market history
+//every ticker owns a chain of column blocks (dates, highs, lows) inside one memory-mapped file,
+//so reading the latest quotes or one ticker's history only touches the bytes that are needed
+//each ticker's blocks are linked in date order from its symbol record (R_NEXT), so blocks may sit anywhere
+//compact() folds closed column blocks into varint-encoded HistorySegments in place; the folded blocks
+//are kept on a free list and reused by later blocks, so the file is never replaced while it is mapped
+public class TickStore implements Closeable {
+    private static final int MAGIC = 0x5449434B; // "TICK"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_HEADER = 24;
+
+    private static final int KIND_SYMBOL = 1;
+    private static final int KIND_COLUMNS = 2;
+    private static final int KIND_SEGMENT = 3;
+    private static final int KIND_FREE = 4;
+
+    private static final int FIRST_BLOCK_ROWS = 16;
+    private static final int MAX_BLOCK_ROWS = 4096;
+    private static final long MIN_MAP_SIZE = 1L << 20;
+
+    // header layout
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_END = 8;
+    private static final int H_TICKERS = 16;
+    private static final int H_SOURCE_LENGTH = 24;
+    private static final int H_SOURCE_MODIFIED = 32;
+    private static final int H_ROWS = 40;
+    private static final int H_MARKET_DATE = 48;
+
+    // record header layout
+    private static final int R_KIND = 0;
+    private static final int R_TICKER = 4;
+    private static final int R_CAPACITY = 8;
+    private static final int R_COUNT = 12;
+    private static final int R_NEXT = 16;
+
+    //callback used to stream the rows of one ticker without building objects
+    public interface RowVisitor {
+        void row(int epochDay, double high, double low);
+    }
+
+    //in-memory directory entry for one ticker; persisted by TickIndex
+    static class TickerEntry {
+        int id;
+        String name;
+        String ticker;
+        // offset of the symbol record, whose R_NEXT points at the first block
+        int symbol;
+        IntArrayList blocks;
+        int rows;
+        int lastDate;
+        double lastHigh;
+        double lastLow;
+
+        TickerEntry(int id, String name, String ticker) {
+            this.id = id;
+            this.name = name;
+            this.ticker = ticker;
+            this.blocks = new IntArrayList(4);
+        }
+
+        void addBlock(int offset) {
+            blocks.add(offset);
+        }
+
+        int lastBlock() {
+            return blocks.isEmpty() ? -1 : blocks.get(blocks.size() - 1);
+        }
+    }
+
+    private final File file;
+    private final File indexFile;
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private MappedByteBuffer buf;
+    private int end;
+    private long totalRows;
+    private int marketDate;
+    private CustomArrayList<TickerEntry> entries;
+    private OpenHashMap<String, TickerEntry> byTicker;
+    // column blocks released by compact(), handed out again by allocateBlock
+    private IntArrayList freeBlocks;
+
+    private TickStore(File file, File indexFile) {
+        this.file = file;
+        this.indexFile = indexFile;
+        this.entries = new CustomArrayList<>();
+        this.byTicker = new OpenHashMap<>();
+        this.freeBlocks = new IntArrayList();
+    }
+
+    // --------------------------------------------------------
+    // OPEN (OR CREATE) A STORE FILE AND ITS SIDE INDEX
+    // --------------------------------------------------------
+    public static TickStore open(File file, File indexFile) throws IOException {
+        TickStore store = new TickStore(file, indexFile);
+        boolean fresh = !file.exists() || file.length() < HEADER_SIZE;
+
+        store.raf = new RandomAccessFile(file, "rw");
+        store.channel = store.raf.getChannel();
+
+        if (fresh) {
+            store.map(MIN_MAP_SIZE);
+            store.buf.putInt(H_MAGIC, MAGIC);
+            store.buf.putInt(H_VERSION, VERSION);
+            store.end = HEADER_SIZE;
+            store.marketDate = Integer.MIN_VALUE;
+            store.writeHeader();
+        } else {
+            store.map(Math.max(file.length(), MIN_MAP_SIZE));
+            if (store.buf.getInt(H_MAGIC) != MAGIC || store.buf.getInt(H_VERSION) != VERSION) {
+                store.release();
+                throw new IOException("Not a tick store file: " + file);
+            }
+            store.end = (int) store.buf.getLong(H_END);
+            store.totalRows = store.buf.getLong(H_ROWS);
+            store.marketDate = store.buf.getInt(H_MARKET_DATE);
+
+            // the side index is only trusted when it describes exactly this file
+            if (!TickIndex.read(indexFile, store)) {
+                store.scanRecords();
+                TickIndex.write(indexFile, store);
+            }
+        }
+        return store;
+    }
+
+    //rebuilds the ticker directory by hopping over record headers (never reads row data)
+    //only needed when the side index is missing or stale
+    private void scanRecords() throws IOException {
+        // data record offsets in file order; a reused block may come before its ticker's symbol record,
+        // so blocks are assigned once every symbol is known
+        IntArrayList records = new IntArrayList();
+        int pos = HEADER_SIZE;
+        while (pos < end) {
+            int kind = buf.getInt(pos + R_KIND);
+            int id = buf.getInt(pos + R_TICKER);
+            int capacity = buf.getInt(pos + R_CAPACITY);
+
+            if (kind == KIND_SYMBOL) {
+                byte[] raw = new byte[capacity];
+                buf.duplicate().position(pos + RECORD_HEADER).get(raw);
+                String text = new String(raw, StandardCharsets.UTF_8);
+                int sep = text.indexOf('\0');
+                TickerEntry e = new TickerEntry(id, text.substring(0, sep), text.substring(sep + 1));
+                e.symbol = pos;
+                addEntry(e);
+                pos += align(RECORD_HEADER + capacity);
+            } else if (kind == KIND_COLUMNS) {
+                records.add(pos);
+                pos += columnBlockSize(capacity);
+            } else if (kind == KIND_SEGMENT) {
+                records.add(pos);
+                pos += align(RECORD_HEADER + capacity);
+            } else if (kind == KIND_FREE) {
+                freeBlocks.add(pos);
+                pos += columnBlockSize(capacity);
+            } else {
+                throw new IOException("Corrupt tick store record at offset " + pos);
+            }
+        }
+
+        for (int r = 0; r < records.size(); r++) {
+            entries.get(buf.getInt(records.get(r) + R_TICKER)).addBlock(records.get(r));
+        }
+
+        for (int i = 0; i < entries.size(); i++) {
+            TickerEntry e = entries.get(i);
+            // the chain gives the date order and leaves out segments of an interrupted compaction;
+            // stores written before blocks were linked from the symbol keep their file order
+            IntArrayList chained = followChain(e, records);
+            if (chained != null)
+                e.blocks = chained;
+            link(e);
+
+            for (int b = 0; b < e.blocks.size(); b++) {
+                e.rows += buf.getInt(e.blocks.get(b) + R_COUNT);
+            }
+            refreshLast(e);
+        }
+    }
+
+    //blocks reached from the symbol record, or null when the links do not form a valid chain
+    private IntArrayList followChain(TickerEntry e, IntArrayList records) {
+        IntArrayList chained = new IntArrayList(e.blocks.size());
+        long next = buf.getLong(e.symbol + R_NEXT);
+        while (next != 0) {
+            // a link to anything but one of this ticker's records, or more links than records, means no chain
+            if (next < HEADER_SIZE || next >= end || !contains(records, (int) next)
+                    || buf.getInt((int) next + R_TICKER) != e.id || chained.size() == e.blocks.size())
+                return null;
+            chained.add((int) next);
+            next = buf.getLong((int) next + R_NEXT);
+        }
+        return chained.isEmpty() && !e.blocks.isEmpty() ? null : chained;
+    }
+
+    //binary search over ascending offsets
+    private static boolean contains(IntArrayList sorted, int value) {
+        int lo = 0;
+        int hi = sorted.size() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int v = sorted.get(mid);
+            if (v == value)
+                return true;
+            if (v < value)
+                lo = mid + 1;
+            else
+                hi = mid - 1;
+        }
+        return false;
+    }
+
+    void addEntry(TickerEntry e) {
+        entries.add(e);
+        byTicker.put(e.ticker.toUpperCase(), e);
+    }
+
+    //drops every record so the store can be rebuilt from scratch
+    public void reset() {
+        entries = new CustomArrayList<>();
+        byTicker = new OpenHashMap<>();
+        freeBlocks = new IntArrayList();
+        end = HEADER_SIZE;
+        totalRows = 0;
+        marketDate = Integer.MIN_VALUE;
+        setSource(0, 0);
+        writeHeader();
+    }
+
+    // --------------------------------------------------------
+    // APPEND ONE ROW FOR A TICKER
+    // --------------------------------------------------------
+    public void append(String name, String ticker, int epochDay, double high, double low) throws IOException {
+        TickerEntry e = byTicker.get(ticker.toUpperCase());
+        if (e == null) {
+            e = createSymbol(name, ticker);
+        }
+
+        int block = e.lastBlock();
+        if (block < 0 || buf.getInt(block + R_KIND) != KIND_COLUMNS
+                || buf.getInt(block + R_COUNT) == buf.getInt(block + R_CAPACITY)) {
+            block = allocateBlock(e);
+        }
+
+        int capacity = buf.getInt(block + R_CAPACITY);
+        int count = buf.getInt(block + R_COUNT);
+        int data = block + RECORD_HEADER;
+
+        buf.putInt(data + 4 * count, epochDay);
+        buf.putDouble(data + 4 * capacity + 8 * count, high);
+        buf.putDouble(data + 12 * capacity + 8 * count, low);
+        buf.putInt(block + R_COUNT, count + 1);
+
+        e.rows++;
+        totalRows++;
+        e.lastDate = epochDay;
+        e.lastHigh = high;
+        e.lastLow = low;
+        if (epochDay > marketDate)
+            marketDate = epochDay;
+    }
+
+    private TickerEntry createSymbol(String name, String ticker) throws IOException {
+        byte[] raw = (name + '\0' + ticker).getBytes(StandardCharsets.UTF_8);
+        int size = align(RECORD_HEADER + raw.length);
+        int pos = reserve(size);
+
+        TickerEntry e = new TickerEntry(entries.size(), name, ticker);
+        e.symbol = pos;
+        buf.putInt(pos + R_KIND, KIND_SYMBOL);
+        buf.putInt(pos + R_TICKER, e.id);
+        buf.putInt(pos + R_CAPACITY, raw.length);
+        buf.putLong(pos + R_NEXT, 0);
+        buf.duplicate().position(pos + RECORD_HEADER).put(raw);
+
+        addEntry(e);
+        writeHeader();
+        return e;
+    }
+
+    //new blocks double in size so a ticker needs O(log days) blocks
+    private int allocateBlock(TickerEntry e) throws IOException {
+        int capacity = FIRST_BLOCK_ROWS;
+        int last = e.lastBlock();
+        if (last >= 0 && buf.getInt(last + R_KIND) == KIND_COLUMNS) {
+            capacity = Math.min(MAX_BLOCK_ROWS, buf.getInt(last + R_CAPACITY) * 2);
+        }
+        return allocateBlock(e, capacity);
+    }
+
+    //a released block is reused with whatever capacity it has before the file is grown
+    private int allocateBlock(TickerEntry e, int capacity) throws IOException {
+        int pos;
+        if (!freeBlocks.isEmpty()) {
+            pos = freeBlocks.removeAt(freeBlocks.size() - 1);
+            capacity = buf.getInt(pos + R_CAPACITY);
+        } else {
+            pos = reserve(columnBlockSize(capacity));
+        }
+        buf.putInt(pos + R_KIND, KIND_COLUMNS);
+        buf.putInt(pos + R_TICKER, e.id);
+        buf.putInt(pos + R_CAPACITY, capacity);
+        buf.putInt(pos + R_COUNT, 0);
+        buf.putLong(pos + R_NEXT, 0);
+
+        int last = e.lastBlock();
+        buf.putLong((last >= 0 ? last : e.symbol) + R_NEXT, pos);
+        e.addBlock(pos);
+        writeHeader();
+        return pos;
+    }
+
+    private int reserve(int size) throws IOException {
+        long needed = (long) end + size;
+        if (needed > Integer.MAX_VALUE) {
+            throw new IOException("Tick store is limited to 2 GB");
+        }
+        if (needed > buf.capacity()) {
+            long grown = Math.min(Integer.MAX_VALUE, Math.max(needed, (long) buf.capacity() * 2));
+            map(grown);
+        }
+        int pos = end;
+        end += size;
+        return pos;
+    }
+
+    // --------------------------------------------------------
+    // READ ACCESS
+    // --------------------------------------------------------
+    public int tickerCount() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    //returns the ticker id, or -1 when the ticker is unknown (case-insensitive)
+    public int find(String ticker) {
+        TickerEntry e = byTicker.get(ticker.toUpperCase());
+        return e == null ? -1 : e.id;
+    }
+
+    public String name(int id) {
+        return entries.get(id).name;
+    }
+
+    public String ticker(int id) {
+        return entries.get(id).ticker;
+    }
+
+    public int rows(int id) {
+        return entries.get(id).rows;
+    }
+
+    public int lastDate(int id) {
+        return entries.get(id).lastDate;
+    }
+
+    public double lastHigh(int id) {
+        return entries.get(id).lastHigh;
+    }
+
+    public double lastLow(int id) {
+        return entries.get(id).lastLow;
+    }
+
+    //current market date (latest date across all tickers) from the header,
+    //or Integer.MIN_VALUE for an empty store
+    public int marketDate() {
+        return marketDate;
+    }
+
+    //streams every row of one ticker in date order, jumping straight to its blocks
+    public void forEachRow(int id, RowVisitor visitor) {
+        TickerEntry e = entries.get(id);
+        for (int b = 0; b < e.blocks.size(); b++) {
+            visitBlock(e.blocks.get(b), visitor);
+        }
+    }
+
+    //lazy cursor over one ticker's rows with epoch-day bounds [fromDay, toDay]
+    public HistoryCursor cursor(int id, int fromDay, int toDay) {
+        TickerEntry e = entries.get(id);
+        return new HistoryCursor(this, e.name, e.ticker, e.blocks.toArray(), fromDay, toDay);
+    }
+
+    //the full history of one ticker as an off-heap series that reads this store's column blocks in place.
+    //compacted segments are varint-encoded, so their rows are decoded once into direct memory.
+    //the series covers the rows present now and stays readable while the store grows
+    public OffHeapPriceSeries mapHistory(int id) {
+        TickerEntry e = entries.get(id);
+        int n = e.blocks.size();
+        ByteBuffer[] dates = new ByteBuffer[n];
+        ByteBuffer[] highs = new ByteBuffer[n];
+        ByteBuffer[] lows = new ByteBuffer[n];
+        int[] rows = new int[n];
+
+        for (int b = 0; b < n; b++) {
+            int block = e.blocks.get(b);
+            int count = buf.getInt(block + R_COUNT);
+            int data = block + RECORD_HEADER;
+            rows[b] = count;
+
+            if (buf.getInt(block + R_KIND) == KIND_SEGMENT) {
+                ByteBuffer d = ByteBuffer.allocateDirect(4 * count).order(buf.order());
+                ByteBuffer h = ByteBuffer.allocateDirect(8 * count).order(buf.order());
+                ByteBuffer l = ByteBuffer.allocateDirect(8 * count).order(buf.order());
+                HistorySegment.decode(buf, data, count, (day, high, low) -> {
+                    d.putInt(day);
+                    h.putDouble(high);
+                    l.putDouble(low);
+                });
+                dates[b] = d;
+                highs[b] = h;
+                lows[b] = l;
+            } else {
+                int capacity = buf.getInt(block + R_CAPACITY);
+                dates[b] = slice(data, 4 * count);
+                highs[b] = slice(data + 4 * capacity, 8 * count);
+                lows[b] = slice(data + 12 * capacity, 8 * count);
+            }
+        }
+        return OffHeapPriceSeries.wrap(e.name, e.ticker, dates, highs, lows, rows);
+    }
+
+    //read-only view of [from, from + length) of the mapped file
+    private ByteBuffer slice(int from, int length) {
+        ByteBuffer view = buf.duplicate();
+        view.position(from);
+        view.limit(from + length);
+        return view.slice().asReadOnlyBuffer().order(buf.order());
+    }
+
+    // block accessors used by HistoryCursor
+    boolean isSegment(int block) {
+        return buf.getInt(block + R_KIND) == KIND_SEGMENT;
+    }
+
+    int blockRows(int block) {
+        return buf.getInt(block + R_COUNT);
+    }
+
+    int columnDate(int block, int row) {
+        return buf.getInt(block + RECORD_HEADER + 4 * row);
+    }
+
+    double columnHigh(int block, int row) {
+        return buf.getDouble(block + RECORD_HEADER + 4 * buf.getInt(block + R_CAPACITY) + 8 * row);
+    }
+
+    double columnLow(int block, int row) {
+        return buf.getDouble(block + RECORD_HEADER + 12 * buf.getInt(block + R_CAPACITY) + 8 * row);
+    }
+
+    HistorySegment.Decoder segmentDecoder(int block) {
+        return new HistorySegment.Decoder(block + RECORD_HEADER);
+    }
+
+    ByteBuffer buffer() {
+        return buf;
+    }
+
+    private void visitBlock(int block, RowVisitor visitor) {
+        int capacity = buf.getInt(block + R_CAPACITY);
+        int count = buf.getInt(block + R_COUNT);
+        int data = block + RECORD_HEADER;
+
+        if (buf.getInt(block + R_KIND) == KIND_SEGMENT) {
+            HistorySegment.decode(buf, data, count, visitor);
+            return;
+        }
+
+        for (int i = 0; i < count; i++) {
+            visitor.row(buf.getInt(data + 4 * i),
+                    buf.getDouble(data + 4 * capacity + 8 * i),
+                    buf.getDouble(data + 12 * capacity + 8 * i));
+        }
+    }
+
+    // --------------------------------------------------------
+    // COMPACTION INTO HISTORY SEGMENTS
+    // --------------------------------------------------------
+
+    //rows compact() would fold: those in closed (full, no longer appended) column blocks in whole cents
+    //after compaction each ticker is a few segments plus its open block
+    public long compactableRows() {
+        long rows = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            TickerEntry e = entries.get(i);
+            for (int b = 0; b < e.blocks.size() - 1; b++) {
+                int block = e.blocks.get(b);
+                if (!isSegment(block) && isWholeCents(block))
+                    rows += buf.getInt(block + R_COUNT);
+            }
+        }
+        return rows;
+    }
+
+    //folds every run of closed column blocks into one history segment appended to this file and returns
+    //the number of rows folded. Existing segments and the open block are left as they are.
+    //the folded blocks are reused by later appends, so cursors and mapped series taken before must be dropped.
+    //a failure leaves every ticker either folded or untouched, and the store stays usable
+    public long compact() throws IOException {
+        long sourceLength = buf.getLong(H_SOURCE_LENGTH);
+        long sourceModified = buf.getLong(H_SOURCE_MODIFIED);
+
+        // until the end, a crash leaves a store that no longer claims to mirror the CSV,
+        // so the next open rebuilds it instead of trusting half-written links
+        setSource(0, 0);
+        writeHeader();
+        buf.force();
+
+        long folded = 0;
+        try {
+            for (int i = 0; i < entries.size(); i++) {
+                folded += fold(entries.get(i));
+            }
+        } finally {
+            setSource(sourceLength, sourceModified);
+            flush();
+        }
+        return folded;
+    }
+
+    //the ticker's new block list is built first and swapped in at the end
+    private long fold(TickerEntry e) throws IOException {
+        int open = e.blocks.size() - 1;
+        IntArrayList kept = new IntArrayList(e.blocks.size());
+        IntArrayList released = new IntArrayList();
+        HistorySegment.Encoder run = null;
+        long folded = 0;
+
+        for (int b = 0; b < open; b++) {
+            int block = e.blocks.get(b);
+            // segments stay as they are; prices with sub-cent precision stay as plain columns
+            if (isSegment(block) || !isWholeCents(block)) {
+                if (run != null)
+                    kept.add(writeSegment(e, run));
+                run = null;
+                kept.add(block);
+                continue;
+            }
+
+            if (run == null)
+                run = new HistorySegment.Encoder();
+            HistorySegment.Encoder encoder = run;
+            visitBlock(block, (day, high, low) -> encoder.add(day, high, low));
+            folded += buf.getInt(block + R_COUNT);
+            released.add(block);
+        }
+        if (released.isEmpty())
+            return 0;
+
+        if (run != null)
+            kept.add(writeSegment(e, run));
+        kept.add(e.blocks.get(open));
+
+        e.blocks = kept;
+        link(e);
+        for (int b = 0; b < released.size(); b++) {
+            freeBlock(released.get(b));
+        }
+        return folded;
+    }
+
+    private boolean isWholeCents(int block) {
+        int capacity = buf.getInt(block + R_CAPACITY);
+        int count = buf.getInt(block + R_COUNT);
+        int data = block + RECORD_HEADER;
+        for (int i = 0; i < count; i++) {
+            if (!HistorySegment.isWholeCents(buf.getDouble(data + 4 * capacity + 8 * i))
+                    || !HistorySegment.isWholeCents(buf.getDouble(data + 12 * capacity + 8 * i)))
+                return false;
+        }
+        return true;
+    }
+
+    //writes an unlinked segment record and returns its offset
+    private int writeSegment(TickerEntry e, HistorySegment.Encoder encoder) throws IOException {
+        int pos = reserve(align(RECORD_HEADER + encoder.length()));
+        buf.putInt(pos + R_KIND, KIND_SEGMENT);
+        buf.putInt(pos + R_TICKER, e.id);
+        buf.putInt(pos + R_CAPACITY, encoder.length());
+        buf.putInt(pos + R_COUNT, encoder.rows());
+        buf.putLong(pos + R_NEXT, 0);
+        buf.duplicate().position(pos + RECORD_HEADER).put(encoder.bytes(), 0, encoder.length());
+        writeHeader();
+        return pos;
+    }
+
+    //rewrites the links so the symbol record leads through the ticker's blocks in order
+    private void link(TickerEntry e) {
+        int prev = e.symbol;
+        for (int b = 0; b < e.blocks.size(); b++) {
+            buf.putLong(prev + R_NEXT, e.blocks.get(b));
+            prev = e.blocks.get(b);
+        }
+        buf.putLong(prev + R_NEXT, 0);
+    }
+
+    //turns a column block into a free record (its capacity is kept for reuse)
+    private void freeBlock(int block) {
+        buf.putInt(block + R_KIND, KIND_FREE);
+        buf.putInt(block + R_TICKER, -1);
+        buf.putInt(block + R_COUNT, 0);
+        buf.putLong(block + R_NEXT, 0);
+        freeBlocks.add(block);
+    }
+
+    // --------------------------------------------------------
+    // DURABILITY
+    // --------------------------------------------------------
+    //persists the header, mapped data and side index; the index is rewritten on every flush
+    public void flush() throws IOException {
+        writeHeader();
+        buf.force();
+        TickIndex.write(indexFile, this);
+    }
+
+    //length and modification time of the CSV this store mirrors, used for staleness checks
+    public void setSource(long length, long modified) {
+        buf.putLong(H_SOURCE_LENGTH, length);
+        buf.putLong(H_SOURCE_MODIFIED, modified);
+    }
+
+    public boolean matchesSource(long length, long modified) {
+        return buf.getLong(H_SOURCE_LENGTH) == length && buf.getLong(H_SOURCE_MODIFIED) == modified;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buf != null) {
+            flush();
+        }
+        release();
+    }
+
+    private void release() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+        if (raf != null) {
+            raf.close();
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    int end() {
+        return end;
+    }
+
+    long totalRows() {
+        return totalRows;
+    }
+
+    CustomArrayList<TickerEntry> entries() {
+        return entries;
+    }
+
+    IntArrayList freeBlocks() {
+        return freeBlocks;
+    }
+
+    // --------------------------------------------------------
+    // HELPERS
+    // --------------------------------------------------------
+    //the open block is always a column block, so the latest row can be read directly
+    private void refreshLast(TickerEntry e) {
+        int block = e.lastBlock();
+        if (block < 0 || buf.getInt(block + R_KIND) != KIND_COLUMNS)
+            return;
+        int capacity = buf.getInt(block + R_CAPACITY);
+        int count = buf.getInt(block + R_COUNT);
+        if (count == 0)
+            return;
+        int data = block + RECORD_HEADER;
+        e.lastDate = buf.getInt(data + 4 * (count - 1));
+        e.lastHigh = buf.getDouble(data + 4 * capacity + 8 * (count - 1));
+        e.lastLow = buf.getDouble(data + 12 * capacity + 8 * (count - 1));
+    }
+
+    private void writeHeader() {
+        buf.putLong(H_END, end);
+        buf.putInt(H_TICKERS, entries.size());
+        buf.putLong(H_ROWS, totalRows);
+        buf.putInt(H_MARKET_DATE, marketDate);
+    }
+
+    private void map(long size) throws IOException {
+        if (raf.length() < size) {
+            raf.setLength(size);
+        }
+        buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+    }
+
+    private static int columnBlockSize(int capacity) {
+        return RECORD_HEADER + capacity * 20;
+    }
+
+    private static int align(int size) {
+        return (size + 7) & ~7;
+    }
+}
@@ -1,26 +1,38 @@
 package stockmarket.ui;
 //imports the custom data structures, models and services used in ui
+import stockmarket.models.MarketDate;
 import stockmarket.models.Stock;
-import stockmarket.datastructures.CustomHashMap;
 import stockmarket.datastructures.CustomArrayList;
+import stockmarket.datastructures.MapView;
+import stockmarket.datastructures.OffHeapPriceSeries;
+import stockmarket.datastructures.PriceBars;
 import stockmarket.services.DataManager;
+import stockmarket.services.MarketState;
 import stockmarket.services.PortfolioManager;
 import stockmarket.services.StockService;
 import stockmarket.algorithms.StockSearch;
 import stockmarket.algorithms.BestBuySellFinder;
+import stockmarket.algorithms.BestTradeTracker;
+import stockmarket.algorithms.TradeWindowTree;
+import stockmarket.algorithms.MarketTradeScan;
+import stockmarket.storage.HistoryCursor;
+import java.time.format.DateTimeParseException;
 import java.util.Scanner;
 //class MenuSystem handles all the user interactions for the system
 //operations like buying/selling stocks, analysing past stock history, portfolio viewing, etc.
 public class MenuSystem {
+    private static final int SUGGESTIONS = 5;
+    // rows shown by the sorted and top movers views
+    private static final int PAGE_SIZE = 20;
+
     private Scanner scanner;
     private PortfolioManager portfolioManager;
-    private CustomHashMap<String, Stock> currentStocks;
+    private MarketState market;
 
     public MenuSystem() {
         this.scanner = new Scanner(System.in);
         this.portfolioManager = new PortfolioManager(100000.0);
-        DataManager.initializeData();
-        this.currentStocks = DataManager.loadCurrentStocks();
+        this.market = new MarketState();
     }
 //Starts the menu system for the user and runs till user chooses to exit.
     public void start() {
@@ -57,6 +69,9 @@ public class MenuSystem {
                     advanceTime();
                     break;
                 case 8:
+                    displayBestTradesAllStocks();
+                    break;
+                case 9:
                     System.out.println("\nThank you for using the Stock Market System!");
                     running = false;
                     break;
@@ -75,18 +90,17 @@ public class MenuSystem {
         System.out.println("2. Sell Stock");
         System.out.println("3. View Portfolio");
         System.out.println("4. Display All Stocks");
-        System.out.println("5. Display Stocks Sorted by Price");
+        System.out.println("5. Display Stocks Sorted by Price / Top Movers");
         System.out.println("6. View Stock History & Best Buy/Sell Days");
         System.out.println("7. Advance to Next Day");
-        System.out.println("8. Exit");
+        System.out.println("8. Best Historical Trade per Stock");
+        System.out.println("9. Exit");
         System.out.println("=".repeat(80));
     }
 // for stock buying
     private void buyStockMenu() {
-        System.out.print("\nEnter stock ticker symbol: ");
-        String ticker = scanner.nextLine().toUpperCase().trim();
-
-        Stock stock = StockSearch.searchByTicker(currentStocks, ticker);
+        System.out.print("\nEnter stock ticker symbol or company name: ");
+        Stock stock = findStock(scanner.nextLine().trim());
         if (stock == null) {
             System.out.println("Stock not found!");
             return;
@@ -106,10 +120,8 @@ public class MenuSystem {
     }
 //for stock selling
     private void sellStockMenu() {
-        System.out.print("\nEnter stock ticker symbol: ");
-        String ticker = scanner.nextLine().toUpperCase().trim();
-
-        Stock stock = StockSearch.searchByTicker(currentStocks, ticker);
+        System.out.print("\nEnter stock ticker symbol or company name: ");
+        Stock stock = findStock(scanner.nextLine().trim());
         if (stock == null) {
             System.out.println("Stock not found!");
             return;
@@ -129,29 +141,62 @@ public class MenuSystem {
     }
 // for viewing current portfolio
     private void viewPortfolio() {
-        portfolioManager.displayPortfolio(currentStocks);
+        portfolioManager.displayPortfolio(market.getStocks());
     }
 // for displaying all current stocks in the system
     private void displayAllStocks() {
-        StockService.displayAllStocks(currentStocks);
+        StockService.displayAllStocks(market.getStocks());
     }
-// for displaying stocks sorted by ascending or descending order of price
+// for displaying the first page of stocks by price, a price range, a stock's price rank,
+// or the biggest movers of the last day
     private void displaySortedStocks() {
         System.out.println("\n1. Sort Low to High");
         System.out.println("2. Sort High to Low");
+        System.out.println("3. Top Daily Gainers");
+        System.out.println("4. Top Daily Losers");
+        System.out.println("5. Stocks in a Price Range");
+        System.out.println("6. Price Rank of a Stock");
         int choice = getIntInput("Enter choice: ");
 
+        if (choice == 5) {
+            double min = getDoubleInput("Enter minimum price: ");
+            double max = getDoubleInput("Enter maximum price: ");
+            StockService.displayStocksInPriceRange(market.getPriceIndex(), min, max, PAGE_SIZE);
+            return;
+        }
+        if (choice == 6) {
+            System.out.print("Enter stock ticker symbol or company name: ");
+            Stock stock = findStock(scanner.nextLine().trim());
+            if (stock == null) {
+                System.out.println("Stock not found!");
+                return;
+            }
+            StockService.displayPriceRank(market.getPriceIndex(), stock);
+            return;
+        }
+
+        if (choice == 3 || choice == 4) {
+            if (!market.hasPreviousDay()) {
+                System.out.println("Daily changes are available after advancing to the next day.");
+                return;
+            }
+            StockService.displayTopMovers(market.getStocks(), market.getPreviousStocks(), choice == 3, PAGE_SIZE);
+            return;
+        }
+
         boolean ascending = (choice == 1);
-        StockService.displayStocksSortedByPrice(currentStocks, ascending);
+        StockService.displayStocksSortedByPrice(market.getPriceIndex(), ascending, PAGE_SIZE);
     }
 
     private void viewStockHistory() {
-        System.out.print("\nEnter stock ticker symbol: ");
-        String ticker = scanner.nextLine().toUpperCase().trim();
+        System.out.print("\nEnter stock ticker symbol or company name: ");
+        String input = scanner.nextLine().trim();
+        Stock match = findStock(input);
+        String ticker = match != null ? match.getTicker() : input.toUpperCase();
 
-        CustomArrayList<Stock> history = DataManager.loadStockHistory(ticker);
+        HistoryCursor history = DataManager.openHistory(ticker);
 
-        if (history.isEmpty()) {
+        if (history == null || !history.next()) {
             System.out.println("No history found for " + ticker);
             return;
         }
@@ -160,29 +205,158 @@ public class MenuSystem {
         System.out.println("                      HISTORY FOR " + ticker);
         System.out.println("=".repeat(80));
 
-        for (int i = 0; i < history.size(); i++) {
-            System.out.println(history.get(i));
-        }
+        // rows are streamed from the store and printed straight from the cursor
+        do {
+            System.out.println(Stock.format(history.getName(), history.getTicker(),
+                    history.date(), history.high(), history.low()));
+        } while (history.next());
 
-        BestBuySellFinder.BuySellResult result = BestBuySellFinder.findBestBuySellDays(history);
+        // kept up to date by the market, no second pass over the history
+        BestTradeTracker tracker = market.getBestTradeTracker(ticker);
+        BestBuySellFinder.BuySellResult result = tracker == null ? null : tracker.best();
 
         if (result != null) {
             System.out.println("\n" + "=".repeat(80));
             System.out.println("                    BEST BUY/SELL OPPORTUNITY");
             System.out.println("=".repeat(80));
-            System.out.printf("Buy Date:  %s (Day %d)\n", result.buyDate, result.buyDay);
-            System.out.printf("Sell Date: %s (Day %d)\n", result.sellDate, result.sellDay);
+            System.out.printf("Buy Date:  %s (Day %d)\n", MarketDate.format(result.buyDate), result.buyDay);
+            System.out.printf("Sell Date: %s (Day %d)\n", MarketDate.format(result.sellDate), result.sellDay);
             System.out.printf("Maximum Profit: $%.2f per share\n", result.profit);
             System.out.println("=".repeat(80));
         } else {
             System.out.println("\nNo profitable buy/sell opportunity found in history.");
+            return;
+        }
+
+        // the full history is only mapped from the store when the user asks for a plan or a date window
+        OffHeapPriceSeries series = null;
+        try {
+            int maxTrades = getIntInput("\nPlan several trades? Enter maximum number of trades (0 to skip): ");
+            if (maxTrades > 0) {
+                double fee = getDoubleInput("Enter fee per trade: ");
+                int cooldown = getIntInput("Enter cooldown days after a sale: ");
+                // !(fee >= 0) also rejects NaN
+                if (!(fee >= 0)) {
+                    System.out.println("Invalid fee!");
+                } else {
+                    series = DataManager.mapStockHistory(ticker);
+                    showTradePlan(series, maxTrades, fee, Math.max(0, cooldown));
+                }
+            }
+            series = queryDateWindows(ticker, series);
+        } finally {
+            if (series != null)
+                series.close();
+        }
+    }
+//answers best buy/sell questions for date windows of the history until the user presses Enter;
+//the tree is built on the first query (reusing the history when it is already mapped), every window
+//after that is an O(log n) query. Pressing Enter straight away maps nothing.
+//returns the mapped history (or null) so the caller can close it
+    private OffHeapPriceSeries queryDateWindows(String ticker, OffHeapPriceSeries history) {
+        TradeWindowTree windows = null;
+        while (true) {
+            System.out.print("\nBest trade in a date window? Enter start date dd-mm-yyyy (Enter to finish): ");
+            String from = scanner.nextLine().trim();
+            if (from.isEmpty())
+                return history;
+            System.out.print("Enter end date dd-mm-yyyy: ");
+            String to = scanner.nextLine().trim();
+
+            int fromDate;
+            int toDate;
+            try {
+                fromDate = MarketDate.parse(from);
+                toDate = MarketDate.parse(to);
+            } catch (DateTimeParseException e) {
+                System.out.println("Invalid date! Please use dd-mm-yyyy.");
+                continue;
+            }
+
+            if (windows == null) {
+                if (history == null)
+                    history = DataManager.mapStockHistory(ticker);
+                windows = new TradeWindowTree(history);
+            }
+            BestBuySellFinder.BuySellResult result = windows.bestBetween(fromDate, toDate);
+            if (result == null) {
+                System.out.println("No profitable buy/sell opportunity between " + from + " and " + to + ".");
+            } else {
+                System.out.printf("Buy %s (Day %d), Sell %s (Day %d): $%.2f per share\n",
+                        MarketDate.format(result.buyDate), result.buyDay,
+                        MarketDate.format(result.sellDate), result.sellDay, result.profit);
+            }
         }
     }
+//prints the optimal schedule of at most maxTrades trades over the loaded history
+    private void showTradePlan(PriceBars history, int maxTrades, double fee, int cooldown) {
+        BestBuySellFinder.TradePlan plan = BestBuySellFinder.findBestTrades(history, maxTrades, fee, cooldown);
+
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("                    BEST PLAN WITH UP TO " + maxTrades + " TRADES");
+        System.out.println("=".repeat(80));
+        if (plan.trades.isEmpty()) {
+            System.out.println("No trade is profitable after fees.");
+        }
+        for (int i = 0; i < plan.trades.size(); i++) {
+            BestBuySellFinder.BuySellResult trade = plan.trades.get(i);
+            System.out.printf("%3d. Buy %s (Day %d)  Sell %s (Day %d)  Profit: $%.2f\n", i + 1,
+                    MarketDate.format(trade.buyDate), trade.buyDay,
+                    MarketDate.format(trade.sellDate), trade.sellDay, trade.profit);
+        }
+        System.out.printf("Total Profit: $%.2f per share\n", plan.totalProfit);
+        System.out.println("=".repeat(80));
+    }
+//looks up the exact ticker first, then falls back to a prefix search over tickers and company names:
+//a single match is used directly, several matches are listed as suggestions
+    private Stock findStock(String input) {
+        // one snapshot for the whole lookup
+        MapView<String, Stock> currentStocks = market.getStocks();
+        Stock stock = StockSearch.searchByTicker(currentStocks, input);
+        if (stock != null || input.isEmpty())
+            return stock;
+
+        CustomArrayList<Stock> matches = StockSearch.searchByPrefix(market.getSymbolIndex(), currentStocks,
+                input, SUGGESTIONS);
+        if (matches.size() == 1) {
+            stock = matches.get(0);
+            System.out.println("Using " + stock.getTicker() + " (" + stock.getName() + ")");
+            return stock;
+        }
+        if (!matches.isEmpty()) {
+            System.out.println("Did you mean:");
+            for (Stock m : matches) {
+                System.out.printf("  %-8s %s\n", m.getTicker(), m.getName());
+            }
+        }
+        return null;
+    }
+//for ranking every stock by the return of its best historical buy/sell trade, one pass over all history
+    private void displayBestTradesAllStocks() {
+        CustomArrayList<MarketTradeScan.TickerTrade> ranked = DataManager.findBestTradesAllTickers();
+
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("                    BEST HISTORICAL TRADE PER STOCK");
+        System.out.println("=".repeat(80));
+        if (ranked.isEmpty()) {
+            System.out.println("No profitable buy/sell opportunity found in history.");
+        }
+        int shown = Math.min(ranked.size(), PAGE_SIZE);
+        for (int i = 0; i < shown; i++) {
+            MarketTradeScan.TickerTrade t = ranked.get(i);
+            System.out.printf("%3d. %-8s Buy %s  Sell %s  Profit: $%-8.2f Return: %.2f%%\n", i + 1, t.ticker,
+                    MarketDate.format(t.trade.buyDate), MarketDate.format(t.trade.sellDate),
+                    t.trade.profit, t.returnPct);
+        }
+        if (shown < ranked.size()) {
+            System.out.println("(showing " + shown + " of " + ranked.size() + " stocks)");
+        }
+        System.out.println("=".repeat(80));
+    }
 //for advancing to the next trading day, updates all stock prices and data
     private void advanceTime() {
         System.out.println("\nAdvancing to next trading day...");
-        DataManager.advanceDay();
-        currentStocks = DataManager.loadCurrentStocks();
+        market.advanceDay();
         System.out.println("\nPress Enter to continue...");
         scanner.nextLine();
     }
@@ -198,4 +372,16 @@ public class MenuSystem {
             }
         }
     }
+//reading a price (decimal number) from user
+    private double getDoubleInput(String prompt) {
+        while (true) {
+            try {
+                System.out.print(prompt);
+                String input = scanner.nextLine().trim();
+                return Double.parseDouble(input);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input! Please enter a number.");
+            }
+        }
+    }
 }
\ No newline at end of file